@@ -2,16 +2,32 @@ package com.borders;
 
 import com.borders.book.BookManager;
 import com.borders.border.BorderManager;
+import com.borders.checkpoint.CheckpointManager;
 import com.borders.commands.CommandManager;
+import com.borders.containment.ContainmentManager;
 import com.borders.discovery.DiscoveryManager;
 import com.borders.failsafe.FailsafeManager;
+import com.borders.inventory.InventoryBaselines;
 import com.borders.inventory.InventoryTracker;
+import com.borders.journal.JournalManager;
+import com.borders.persistence.PersistenceManager;
+import com.borders.profile.ProfileManager;
+import com.borders.reset.ResetManager;
+import com.borders.scheduler.SchedulerManager;
+import com.borders.scoreboard.ScoreboardManager;
+import com.borders.shape.ShapeManager;
 import com.borders.state.GameState;
+import com.borders.teleport.SafeSpotResolver;
+import com.borders.teleport.TeleportManager;
+import com.borders.warning.WarningManager;
 import com.borders.death.DeathManager;
 
 
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 
@@ -37,6 +53,7 @@ import java.util.Random;
 import java.util.UUID;
 
 import com.borders.state.BordersSavedData;
+import com.borders.state.BordersWorldData;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 
 
@@ -74,40 +91,162 @@ public class BordersMod implements ModInitializer {
 
 		// Load saved Borders state (if any) into the global GameState
 		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
-			BordersSavedData loaded = BordersSavedData.loadFromDisk();
+			// Cache level handles once; border syncs iterate this list
+			BorderManager.cacheLevels(server);
+
+			long loadStart = System.nanoTime();
+
+			// First start of a world after upgrading: import the old global save once
+			boolean migrating = BordersWorldData.get(server).isEmpty() && BordersSavedData.hasLegacySave();
+			if (migrating) {
+				JournalManager.migrateLegacy(server);
+			}
+
+			BordersSavedData loaded = BordersSavedData.load(server);
+			boolean migrated = migrating && loaded != null;
 			if (loaded != null) {
-				loaded.applyToGameState(STATE, server);
-				LOGGER.info("[Borders] Loaded saved Borders state from config/borders_state.json");
+				LOGGER.info(migrating
+						? "[Borders] Imported Borders state from the old config/borders_state file"
+						: "[Borders] Loaded saved Borders state for this world");
 			} else {
 				LOGGER.info("[Borders] No saved Borders state found, using defaults.");
+				loaded = new BordersSavedData();
 			}
+
+			// Changes made after that snapshot (up to a crash) come from the journal
+			STATE.activeProfile = BordersWorldData.get(server).getProfile();
+			JournalManager.ReplayResult replay = JournalManager.replayInto(server, loaded, STATE.activeProfile);
+			if (replay.sawReset()) {
+				ScoreboardManager.unmirror(server, JournalManager.namesClearedByReplay());
+				ScoreboardManager.resetDiscoveryScores(server);
+			}
+			loaded.applyToGameState(STATE, server);
+			JournalManager.open();
+
+			LOGGER.info("[Borders] Profile '{}' loaded in {} ms ({} discovered items, {} scores)",
+					STATE.activeProfile,
+					(System.nanoTime() - loadStart) / 1_000_000L,
+					STATE.OBTAINED_ITEMS.size(),
+					STATE.DISCOVERY_SCORES.size());
+
+			// Arm the failsafe deadline from the loaded state
+			FailsafeManager.reschedule(server);
+
+			try {
+				ShapeManager.reloadShape();
+			} catch (IllegalArgumentException e) {
+				LOGGER.warn("[Borders] Saved polygon border is invalid ({}), falling back to square.", e.getMessage());
+				STATE.borderShape = "square";
+				ShapeManager.reloadShape();
+				PersistenceManager.markDirty();
+			}
+
+			// Persist a migration / finish an interrupted journal compaction
+			PersistenceManager.start(server, migrated, replay.applied() > 0);
+
+			// Periodic compressed checkpoints for /borders rollback
+			CheckpointManager.start(server);
 		});
 
 		// Save current Borders state when the server is stopping
 		ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
-			BordersSavedData snapshot = BordersSavedData.fromGameState(STATE, server);
-			snapshot.saveToDisk();
-			LOGGER.info("[Borders] Saved Borders state to config/borders_state.json");
+			BorderManager.materializeAll();
+
+			// Vanilla writes the world's SavedData in its final save right after this
+			PersistenceManager.refresh(server);
+			JournalManager.close();
+		});
+
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+			BorderManager.clearLevelCache();
+
+			// Drop all timers so nothing carries over into the next server session
+			SchedulerManager.clear();
+			FailsafeManager.clear();
+			DeathManager.clear();
+			ContainmentManager.clear();
+			InventoryBaselines.clear();
+			CheckpointManager.clear();
+			ScoreboardManager.clear();
+			SafeSpotResolver.clear();
+			TeleportManager.clear();
+			ProfileManager.clear();
 		});
 
+		// Safe-spot cache entries only live as long as their chunk is loaded
+		ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) ->
+				SafeSpotResolver.invalidate(level, chunk.getPos()));
+
 
 		// Per-tick handler for main game loop logic
 		ServerTickEvents.END_SERVER_TICK.register(this::onEndServerTick);
 
+		// Group commit: write + fsync everything journaled this tick in one go
+		ServerTickEvents.END_SERVER_TICK.register(server -> {
+			if (JournalManager.commit()) {
+				PersistenceManager.compact(server);
+			}
+		});
+
 		// On player join:
 		//  - Initialize world border if first player joined
 		//  - Otherwise clamp player inside the existing border
 		ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
 			ServerPlayer player = handler.player;
 			ServerLevel level = (ServerLevel) player.level();
+
+			// Restore the inventory baseline from the player's last session
+			InventoryBaselines.load(server, player);
 			WorldBorder border = level.getWorldBorder(); // required for access, not used directly
 
+			// Bring this dimension's border up to date before clamping against it
+			BorderManager.materialize(level);
+
 			if (!STATE.BORDER_INITIALIZED) {
 				BorderManager.initializeBorderOnFirstJoin(level, player);
 				STATE.lastDiscoveryTick = STATE.globalTick;
+				FailsafeManager.reschedule(server);
 			} else {
 				BorderManager.clampPlayerInsideBorder(level, player);
 			}
+
+			// Keep the player inside the border for the rest of the session
+			ContainmentManager.track(player);
+			WarningManager.track(player);
+
+			// Show the player's own rank if they are outside the sidebar's top lines
+			ScoreboardManager.onPlayerJoin(server, player);
+		});
+
+		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+			InventoryBaselines.unload(server, handler.player);
+			ContainmentManager.untrack(handler.player);
+			WarningManager.untrack(handler.player);
+			ScoreboardManager.onPlayerLeave(handler.player);
+		});
+
+		// Portals can drop players outside the border of the destination dimension
+		ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, origin, destination) -> {
+			BorderManager.materialize(destination);
+			ContainmentManager.track(player);
+			WarningManager.track(player);
+		});
+
+		// Respawning can also move a player into another dimension (or outside the border)
+		ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> {
+			BorderManager.materialize((ServerLevel) newPlayer.level());
+			ContainmentManager.track(newPlayer);
+			WarningManager.track(newPlayer);
+		});
+
+		// Before every world save:
+		//  - empty dimensions only get border changes lazily; flush them
+		//  - copy GameState into the world's SavedData if it was marked dirty
+		//  - write online players' inventory baselines
+		ServerLifecycleEvents.BEFORE_SAVE.register((server, flush, force) -> {
+			BorderManager.materializeAll();
+			PersistenceManager.refresh(server);
+			InventoryBaselines.saveAll(server);
 		});
 
 		// Register DeathManager
@@ -149,16 +288,36 @@ public class BordersMod implements ModInitializer {
 	 *
 	 * Responsibilities:
 	 *  - Increment global tick counter
-	 *  - Scan each player's inventory
+	 *  - Advance a running staged reset
+	 *  - Run queued teleports once their chunks are loaded
+	 *  - Run due scheduler timers (containment checks, failsafe deadline)
+	 *  - Warn players close to the border edge
+	 *  - Scan each player's inventory (skipped while a reset is running)
 	 *  - Detect newly obtained items
 	 *  - Pass newly discovered items into DiscoveryManager
 	 *  - Update LAST_INVENTORIES
-	 *  - Run failsafe logic each tick
 	 */
 	public void onEndServerTick(MinecraftServer server) {
 		// Advance global timer
 		STATE.globalTick++;
 
+		// Advance a running /borders reset by one stage / batch
+		ResetManager.tick(server);
+
+		// Run queued teleports whose destination chunks finished loading
+		TeleportManager.tick(server);
+
+		// Run due timers: containment checks, failsafe deadline, ...
+		SchedulerManager.tick();
+
+		// Action-bar warnings for players near the edge
+		WarningManager.tick(server);
+
+		// Mid-reset: never scan inventories, so no discovery can be counted
+		if (STATE.discoveryFrozen) {
+			return;
+		}
+
 		PlayerList playerList = server.getPlayerList();
 		List<ServerPlayer> players = playerList.getPlayers();
 
@@ -183,8 +342,5 @@ public class BordersMod implements ModInitializer {
 			// Store latest snapshot for next tick
 			STATE.LAST_INVENTORIES.put(uuid, current);
 		}
-
-		// Failsafe logic (idle expansion)
-		FailsafeManager.tick(server);
 	}
 }
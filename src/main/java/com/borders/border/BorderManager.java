@@ -1,7 +1,20 @@
 package com.borders.border;
 
 import com.borders.BordersMod;
+import com.borders.chunk.ChunkReleaseManager;
+import com.borders.containment.ContainmentManager;
+import com.borders.history.BorderChangeSource;
+import com.borders.history.BorderHistory;
+import com.borders.journal.JournalManager;
+import com.borders.persistence.PersistenceManager;
+import com.borders.scoreboard.ScoreboardManager;
+import com.borders.shape.ShapeManager;
+import com.borders.state.DimensionBorderSettings;
+import com.borders.teleport.SafeSpotResolver;
+import com.borders.teleport.TeleportManager;
+import com.borders.warning.WarningManager;
 import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -9,64 +22,241 @@ import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.border.WorldBorder;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Handles all world-border-related behavior:
  *  - Initial border creation on first join
- *  - Manual border growth/shrink (via commands or discovery)
+ *  - Border growth/shrink (commands, discovery, failsafe, death), recorded
+ *    in the border history, and undo of the last change
  *  - Clamping players inside the current border
+ *  - Distance-to-edge queries and nearest-inside relocation
  *  - Resetting border to original spawn chunk
- *  - Syncing border state across Overworld, Nether and End
+ *  - Syncing border state across all dimensions (with per-dimension scale/offset)
  *
- * This class contains NO global state — it only mutates GameState
- * through BordersMod.STATE and operates on the world border instance.
+ * Apart from cached level handles and the set of pending (not yet synced)
+ * dimensions, this class contains NO global state —
+ * it only mutates GameState through BordersMod.STATE and operates on the
+ * world border instances.
  */
 public class BorderManager {
 
+    /** Smallest border diameter (the vanilla starting size). */
+    public static final double MIN_BORDER_SIZE = 16.0;
+
+    /**
+     * Level handles for every loaded dimension (vanilla and modded),
+     * collected once at server start instead of looked up on every change.
+     */
+    private static final List<ServerLevel> LEVELS = new ArrayList<>();
+
+    /**
+     * Dimensions whose WorldBorder is behind GameState because nobody was
+     * there when the border last changed.
+     */
+    private static final Set<ResourceKey<Level>> PENDING_LEVELS = new HashSet<>();
+
+    /**
+     * Caches the handles of all loaded dimensions.
+     * Called from SERVER_STARTED.
+     */
+    public static void cacheLevels(MinecraftServer server) {
+        LEVELS.clear();
+        for (ServerLevel level : server.getAllLevels()) {
+            LEVELS.add(level);
+        }
+    }
+
+    /** Drops cached level handles. Called from SERVER_STOPPED. */
+    public static void clearLevelCache() {
+        LEVELS.clear();
+        PENDING_LEVELS.clear();
+    }
+
     /**
-     * Adjusts the border size by a delta in a single level.
+     * Computes a new border size from a delta.
+     *
+     * This does not touch any WorldBorder; callers apply the result
+     * through applyBorderToAllDimensions, which handles per-dimension scaling.
      *
-     * @param level       The world (server level)
      * @param currentSize Current border diameter
      * @param delta       Positive or negative change (diameter)
      * @return The updated border size
      */
-    public static double changeBorderSize(ServerLevel level, double currentSize, double delta) {
-        WorldBorder border = level.getWorldBorder();
-        double newSize = currentSize + delta;
-        border.setSize(newSize);
-        return newSize;
+    public static double changeBorderSize(double currentSize, double delta) {
+        return currentSize + delta;
+    }
+
+    /**
+     * Single entry point for gameplay border resizes (discovery, failsafe,
+     * death, /borders grow|shrink).
+     *
+     * Computes the new size (never below MIN_BORDER_SIZE), records the change
+     * in GameState.BORDER_HISTORY, syncs all dimensions and refreshes the
+     * sidebar. Shrinks also release far-away chunks and re-check players.
+     *
+     * @param delta      Requested diameter change (positive grows)
+     * @param source     What caused the change
+     * @param playerName Responsible player for the history, or null
+     * @return The applied diameter change (may be smaller after clamping)
+     */
+    public static double resizeBorder(MinecraftServer server, double delta,
+                                      BorderChangeSource source, String playerName) {
+        double oldSize = BordersMod.STATE.currentBorderSize;
+        double newSize = Math.max(MIN_BORDER_SIZE, changeBorderSize(oldSize, delta));
+
+        long tick = server.overworld().getGameTime();
+        BordersMod.STATE.BORDER_HISTORY.record(tick, newSize - oldSize, newSize, source, playerName);
+        JournalManager.logHistory(tick, newSize - oldSize, newSize, source, playerName);
+
+        applyNewSize(server, oldSize, newSize);
+        return newSize - oldSize;
+    }
+
+    /**
+     * Reverts the newest change in the border history and removes it.
+     *
+     * Resets and rollbacks are not undoable here (they also change items and scores).
+     *
+     * @return The source of the undone change, or null if there was nothing to undo
+     */
+    public static BorderChangeSource undoLastChange(MinecraftServer server) {
+        BorderHistory history = BordersMod.STATE.BORDER_HISTORY;
+        if (history.size() == 0
+                || history.source(0) == BorderChangeSource.RESET
+                || history.source(0) == BorderChangeSource.ROLLBACK) {
+            return null;
+        }
+
+        BorderChangeSource source = history.source(0);
+        double oldSize = BordersMod.STATE.currentBorderSize;
+        double newSize = Math.max(MIN_BORDER_SIZE, oldSize - history.delta(0));
+        history.removeNewest();
+        JournalManager.logHistoryUndo();
+
+        applyNewSize(server, oldSize, newSize);
+        return source;
+    }
+
+    private static void applyNewSize(MinecraftServer server, double oldSize, double newSize) {
+        BordersMod.STATE.currentBorderSize = newSize;
+        JournalManager.logBorder(BordersMod.STATE);
+        PersistenceManager.markDirty();
+
+        // Sync border size + center across all dimensions
+        applyBorderToAllDimensions(server);
+
+        if (newSize < oldSize) {
+            // Let chunks that are now far outside the border unload
+            ChunkReleaseManager.releaseChunksOutsideBorder(server);
+
+            // Players near the old edge may now be outside
+            ContainmentManager.invalidateAll(server);
+            WarningManager.invalidateAll(server);
+        }
+
+        // Reflect the new border size in the sidebar
+        ScoreboardManager.updateBorderSizeLine(server);
     }
 
     /**
      * Applies the current border configuration (center + size) from GameState
-     * to all main dimensions:
+     * to every loaded dimension, including modded ones.
      *
-     *  - Overworld
-     *  - Nether
-     *  - End
+     * Each dimension uses its DimensionBorderSettings:
+     *  - size   = currentBorderSize * scale
+     *  - center = borderCenter * scale + offset
      *
-     * All three share the same:
-     *  - centerX / centerZ
-     *  - diameter (currentBorderSize)
+     * Dimensions without settings mirror the Overworld border exactly.
      *
-     * Nether is NOT scaled by 8x – border size is identical there.
+     * Dimensions with no players are NOT written here; they are marked
+     * pending and materialized later (see materialize / materializeAll).
+     * This avoids WorldBorder writes and update packets for empty levels.
      */
     public static void applyBorderToAllDimensions(MinecraftServer server) {
-        double size = BordersMod.STATE.currentBorderSize;
-        double centerX = BordersMod.STATE.borderCenterX;
-        double centerZ = BordersMod.STATE.borderCenterZ;
+        if (LEVELS.isEmpty()) {
+            cacheLevels(server);
+        }
 
-        syncBorderForLevel(server.getLevel(Level.OVERWORLD), size, centerX, centerZ);
-        syncBorderForLevel(server.getLevel(Level.NETHER), size, centerX, centerZ);
-        syncBorderForLevel(server.getLevel(Level.END), size, centerX, centerZ);
+        for (ServerLevel level : LEVELS) {
+            if (level.players().isEmpty()) {
+                PENDING_LEVELS.add(level.dimension());
+            } else {
+                PENDING_LEVELS.remove(level.dimension());
+                syncBorderForLevel(level);
+            }
+        }
     }
 
-    private static void syncBorderForLevel(ServerLevel level, double size, double centerX, double centerZ) {
-        if (level == null) return;
+    /**
+     * Brings a level's WorldBorder up to date if it has pending changes.
+     * Called when a player enters the level (join, dimension change, respawn)
+     * and before anything reads that level's border for a teleport.
+     */
+    public static void materialize(ServerLevel level) {
+        if (PENDING_LEVELS.remove(level.dimension())) {
+            syncBorderForLevel(level);
+        }
+    }
+
+    /**
+     * Materializes every pending level.
+     * Called before the world saves, so WorldBorder data on disk is current.
+     */
+    public static void materializeAll() {
+        if (PENDING_LEVELS.isEmpty()) {
+            return;
+        }
+
+        for (ServerLevel level : LEVELS) {
+            materialize(level);
+        }
+    }
 
+    /** Per-dimension geometry for a level, or the default (mirror Overworld). */
+    public static DimensionBorderSettings settingsFor(ResourceKey<Level> dimension) {
+        return BordersMod.STATE.DIMENSION_SETTINGS.getOrDefault(
+                dimension.location().toString(),
+                DimensionBorderSettings.DEFAULT
+        );
+    }
+
+    /** Axis-aligned border bounds in a level's own coordinates. */
+    public record Bounds(double minX, double minZ, double maxX, double maxZ) {}
+
+    /**
+     * Border bounds a level should have according to GameState,
+     * regardless of whether its WorldBorder has been materialized yet.
+     */
+    public static Bounds targetBounds(ResourceKey<Level> dimension) {
+        DimensionBorderSettings settings = settingsFor(dimension);
+
+        double half = BordersMod.STATE.currentBorderSize * settings.scale / 2.0;
+        double centerX = BordersMod.STATE.borderCenterX * settings.scale + settings.offsetX;
+        double centerZ = BordersMod.STATE.borderCenterZ * settings.scale + settings.offsetZ;
+
+        return new Bounds(centerX - half, centerZ - half, centerX + half, centerZ + half);
+    }
+
+    private static void syncBorderForLevel(ServerLevel level) {
+        DimensionBorderSettings settings = settingsFor(level.dimension());
+
+        double size = BordersMod.STATE.currentBorderSize * settings.scale;
+        double centerX = BordersMod.STATE.borderCenterX * settings.scale + settings.offsetX;
+        double centerZ = BordersMod.STATE.borderCenterZ * settings.scale + settings.offsetZ;
+
+        // Each setter sends a packet to everyone in the level; skip no-ops
         WorldBorder border = level.getWorldBorder();
-        border.setCenter(centerX, centerZ);
-        border.setSize(size);
+        if (border.getCenterX() != centerX || border.getCenterZ() != centerZ) {
+            border.setCenter(centerX, centerZ);
+        }
+        if (border.getSize() != size) {
+            border.setSize(size);
+        }
     }
 
     /**
@@ -78,7 +268,7 @@ public class BorderManager {
      *  - Starting border size (16x16)
      *  - Teleports first player into the center of their chunk
      *
-     * It also applies the same border to Nether and End.
+     * It also applies the border to every other dimension.
      */
     public static void initializeBorderOnFirstJoin(ServerLevel level, ServerPlayer player) {
         BordersMod.STATE.BORDER_INITIALIZED = true;
@@ -95,6 +285,9 @@ public class BorderManager {
         // Starting border size
         BordersMod.STATE.currentBorderSize = 16.0;
 
+        JournalManager.logBorder(BordersMod.STATE);
+        PersistenceManager.markDirty();
+
         // Apply border center + starting border size to all dimensions
         applyBorderToAllDimensions(level.getServer());
 
@@ -105,46 +298,139 @@ public class BorderManager {
                 BordersMod.STATE.borderCenterX, BordersMod.STATE.borderCenterZ
         );
 
-        // Ensure the first player stands inside the center of their chunk
+        // Ensure the first player stands on safe ground near the spawn position
+        BlockPos target = resolveSafeTarget(level, spawnPos);
         player.teleportTo(
-                spawnPos.getX() + 0.5,
-                spawnPos.getY(),
-                spawnPos.getZ() + 0.5
+                target.getX() + 0.5,
+                target.getY(),
+                target.getZ() + 0.5
         );
     }
 
     /**
      * Used when a player joins after the border is already initialized.
-     * If they join outside the border, they are teleported back to the spawn center.
+     * If they join outside the border, they are teleported back to a safe spot
+     * near the spawn center.
      *
-     * This logic is dimension-agnostic; it uses the cached center and size
-     * from GameState and always teleports to the stored spawn position
-     * (which is in the Overworld).
+     * The check uses the border of the level the player is in, so scaled
+     * dimensions (e.g. a 1/8 Nether border) are handled correctly. The
+     * teleport always goes to the stored spawn position in the Overworld.
      */
     public static void clampPlayerInsideBorder(ServerLevel level, ServerPlayer player) {
         if (BordersMod.STATE.initialSpawnPos == null) return;
 
-        double half = BordersMod.STATE.currentBorderSize / 2.0;
-        double px = player.getX();
-        double pz = player.getZ();
+        boolean outside = distanceToEdge(level, player.getX(), player.getZ()) < 0;
+
+        if (outside) {
+            teleportToSpawn(player);
+        }
+    }
+
+    /**
+     * Teleports a player to a safe spot near the stored spawn position
+     * in the Overworld.
+     *
+     * The teleport is queued in TeleportManager and happens once the spawn
+     * chunk has finished loading, so it never blocks the server thread.
+     */
+    public static void teleportToSpawn(ServerPlayer player) {
+        BlockPos spawn = BordersMod.STATE.initialSpawnPos;
+        if (spawn == null) return;
 
-        double centerX = BordersMod.STATE.borderCenterX;
-        double centerZ = BordersMod.STATE.borderCenterZ;
+        ServerLevel overworld = player.level().getServer().overworld();
+        TeleportManager.queueTeleport(player, overworld, spawn);
+    }
 
-        // Check if position is outside our manually tracked border
-        boolean outside =
-                px < centerX - half || px > centerX + half ||
-                        pz < centerZ - half || pz > centerZ + half;
+    /**
+     * Starts loading the chunks around the stored spawn position ahead of
+     * a mass teleport (e.g. /borders reset).
+     */
+    public static void preloadSpawnArea(MinecraftServer server, int radius) {
+        BlockPos spawn = BordersMod.STATE.initialSpawnPos;
+        if (spawn == null) return;
 
-        if (outside) {
-            BlockPos spawn = BordersMod.STATE.initialSpawnPos;
+        TeleportManager.preloadArea(server.overworld(), new ChunkPos(spawn), radius);
+    }
 
-            player.teleportTo(
-                    spawn.getX() + 0.5,
-                    spawn.getY(),
-                    spawn.getZ() + 0.5
-            );
+    /**
+     * Returns a safe feet position near {@code pos}, falling back to
+     * {@code pos} itself if the resolver finds nothing nearby.
+     */
+    private static BlockPos resolveSafeTarget(ServerLevel level, BlockPos pos) {
+        BlockPos safe = SafeSpotResolver.findSafeSpot(level, pos.getX(), pos.getZ());
+        return safe != null ? safe : pos;
+    }
+
+    /**
+     * Signed distance from (x, z) to the nearest edge of the level's border.
+     * Positive while inside, negative once outside.
+     *
+     * Honors circle/polygon shapes (see ShapeManager); for those, the value
+     * is a conservative lower bound away from edge chunks.
+     */
+    public static double distanceToEdge(ServerLevel level, double x, double z) {
+        return ShapeManager.distanceToEdge(level, x, z);
+    }
+
+    /**
+     * Like distanceToEdge, but always the true distance, also for circle and
+     * polygon shapes. Use this for anything shown to players.
+     */
+    public static double exactDistanceToEdge(ServerLevel level, double x, double z) {
+        return ShapeManager.exactDistanceToEdge(level, x, z);
+    }
+
+    /** Whether (x, z) is inside the level's border, honoring the border shape. */
+    public static boolean isInsideBorder(ServerLevel level, double x, double z) {
+        return level.getWorldBorder().isWithinBounds(x, z)
+                && ShapeManager.isInside(level, x, z);
+    }
+
+    /**
+     * Moves a player to the nearest point that lies at least {@code margin}
+     * blocks inside the border of their current level, on a safe column found
+     * by SafeSpotResolver (or SafeSpotResolver.fallbackY if none is nearby).
+     *
+     * Unlike clampPlayerInsideBorder this keeps the player where they were
+     * (just pulled back over the edge) instead of sending them to spawn.
+     */
+    public static void relocateInsideBorder(ServerLevel level, ServerPlayer player, double margin) {
+        WorldBorder border = level.getWorldBorder();
+
+        // Never let the margin cross the center on tiny borders
+        double marginX = Math.min(margin, (border.getMaxX() - border.getMinX()) / 2.0);
+        double marginZ = Math.min(margin, (border.getMaxZ() - border.getMinZ()) / 2.0);
+
+        double x = Math.clamp(player.getX(), border.getMinX() + marginX, border.getMaxX() - marginX);
+        double z = Math.clamp(player.getZ(), border.getMinZ() + marginZ, border.getMaxZ() - marginZ);
+
+        // Circle / polygon: pull further in, toward the center, until inside the outline
+        if (!ShapeManager.isSquare()) {
+            double[] inside = ShapeManager.pullInside(level, x, z, margin);
+            x = inside[0];
+            z = inside[1];
         }
+
+        BlockPos safe = SafeSpotResolver.findSafeSpot(level, (int) Math.floor(x), (int) Math.floor(z));
+        if (safe != null) {
+            x = safe.getX() + 0.5;
+            z = safe.getZ() + 0.5;
+        }
+        // No safe spot nearby: top of the terrain, or below the ceiling (Nether)
+        double y = safe != null
+                ? safe.getY()
+                : SafeSpotResolver.fallbackY(level, (int) Math.floor(x), (int) Math.floor(z));
+
+        player.teleportTo(
+                level,
+                x,
+                y,
+                z,
+                Collections.emptySet(),  // no relative flags
+                player.getYRot(),
+                player.getXRot(),
+                false
+        );
     }
 
     /**
@@ -153,7 +439,7 @@ public class BorderManager {
      *  - Returns size to 16x16
      *
      * Called by /borders reset.
-     * Border is re-applied to Overworld, Nether, and End.
+     * Border is re-applied to every dimension.
      */
     public static void resetBorder(ServerLevel level) {
         // Recalculate chunk center from stored spawn position
@@ -163,8 +449,16 @@ public class BorderManager {
             BordersMod.STATE.borderCenterZ = chunkPos.getMiddleBlockZ();
         }
 
-        // Reset size in state
-        BordersMod.STATE.currentBorderSize = 16.0;
+        // Reset size in state (kept in the history, but not undoable)
+        double oldSize = BordersMod.STATE.currentBorderSize;
+        BordersMod.STATE.currentBorderSize = MIN_BORDER_SIZE;
+        long tick = level.getServer().overworld().getGameTime();
+        BordersMod.STATE.BORDER_HISTORY.record(
+                tick, MIN_BORDER_SIZE - oldSize, MIN_BORDER_SIZE, BorderChangeSource.RESET, null
+        );
+        JournalManager.logHistory(tick, MIN_BORDER_SIZE - oldSize, MIN_BORDER_SIZE, BorderChangeSource.RESET, null);
+        JournalManager.logBorder(BordersMod.STATE);
+        PersistenceManager.markDirty();
 
         // Apply reset parameters to all dimensions
         applyBorderToAllDimensions(level.getServer());
@@ -0,0 +1,572 @@
+package com.borders.checkpoint;
+
+import com.borders.BordersMod;
+import com.borders.chunk.ChunkReleaseManager;
+import com.borders.history.BorderChangeSource;
+import com.borders.history.BorderHistory;
+import com.borders.journal.JournalManager;
+import com.borders.persistence.PersistenceManager;
+import com.borders.profile.ProfileManager;
+import com.borders.scheduler.SchedulerManager;
+import com.borders.scheduler.TimingWheel;
+import com.borders.state.BordersBinaryFormat;
+import com.borders.state.BordersSavedData;
+import com.borders.state.BordersWorldData;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Point-in-time checkpoints of the active profile, for /borders rollback.
+ *
+ * Every CHECKPOINT_INTERVAL_TICKS the state is compared with the previous
+ * checkpoint and one deflate-compressed file is written to
+ * <world>/borders/checkpoints/<profile>/:
+ *  - a BASE: the full binary snapshot, at the start of each chain
+ *  - a DELTA: items added/removed, score deltas, removed scores and the
+ *    small "core" block (border, center, config, shape) of the state
+ * Nothing is written if nothing changed. A new chain (base) is started
+ * every DELTAS_PER_BASE deltas.
+ *
+ * Rollback reads the newest checkpoint at or before the requested time:
+ * its chain's base plus at most DELTAS_PER_BASE deltas, never the whole
+ * session. Whole chains are deleted oldest first once the files exceed
+ * GameState.checkpointBudgetMb (the newest chain is always kept).
+ *
+ * Checkpoints leave out the border history; a rollback keeps the current
+ * history and records itself in it. File IO runs on the vanilla IO pool,
+ * in order.
+ *
+ * File name: <index>-<epoch millis>-base|delta.bin
+ * File body (deflated): int version | byte kind | long epoch millis | body
+ */
+public class CheckpointManager {
+
+    /** Ticks between checkpoints (1 minute at 20 TPS). */
+    private static final long CHECKPOINT_INTERVAL_TICKS = 1200L;
+
+    /** Deltas after a base before the next base starts a new chain. */
+    private static final int DELTAS_PER_BASE = 30;
+
+    private static final int VERSION = 2;  // 2: deltas carry UUID scores
+    private static final byte BASE = 0;
+    private static final byte DELTA = 1;
+
+    private record Checkpoint(long index, long time, boolean base, Path path, long size) {}
+
+    /** Known checkpoints of the active profile, oldest first. */
+    private static final List<Checkpoint> CHECKPOINTS = new ArrayList<>();
+
+    private static Path directory = null;
+
+    /** State at the newest checkpoint (history dropped); null = next one is a base. */
+    private static BordersSavedData last = null;
+
+    private static int deltasSinceBase = 0;
+    private static long nextIndex = 0L;
+
+    /** Tail of the ordered IO chain (writes and deletes). */
+    private static CompletableFuture<Void> pendingIo = CompletableFuture.completedFuture(null);
+
+    private static TimingWheel.Timer timer = null;
+
+    // ------------------------------------------------------------------------
+    // Lifecycle
+    // ------------------------------------------------------------------------
+
+    /** Indexes the active profile's checkpoints and starts the timer. Called from SERVER_STARTED. */
+    public static void start(MinecraftServer server) {
+        reload(server);
+        timer = SchedulerManager.scheduleRepeating(
+                CHECKPOINT_INTERVAL_TICKS,
+                CHECKPOINT_INTERVAL_TICKS,
+                () -> checkpoint(server)
+        );
+    }
+
+    /**
+     * Switches to the active profile's checkpoint directory.
+     * Called on start and after a profile switch; the next checkpoint is a base.
+     */
+    public static void reload(MinecraftServer server) {
+        pendingIo.join();
+
+        directory = BordersWorldData.getDirectory(server)
+                .resolve("checkpoints")
+                .resolve(BordersMod.STATE.activeProfile);
+        CHECKPOINTS.clear();
+        last = null;
+        deltasSinceBase = 0;
+        nextIndex = 0L;
+
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(CheckpointManager::parse)
+                    .filter(checkpoint -> checkpoint != null)
+                    .sorted(Comparator.comparingLong(Checkpoint::index))
+                    .forEach(CHECKPOINTS::add);
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Failed to list checkpoints", e);
+        }
+
+        if (!CHECKPOINTS.isEmpty()) {
+            nextIndex = CHECKPOINTS.get(CHECKPOINTS.size() - 1).index() + 1;
+        }
+    }
+
+    /** Stops the timer and waits for pending file IO. Called from SERVER_STOPPED. */
+    public static void clear() {
+        timer = null;
+        pendingIo.join();
+        CHECKPOINTS.clear();
+        last = null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Taking checkpoints
+    // ------------------------------------------------------------------------
+
+    /**
+     * Writes a checkpoint of the current state if it changed since the last one.
+     * Runs on the timer, before a rollback and before a profile switch.
+     */
+    public static void checkpoint(MinecraftServer server) {
+        if (BordersMod.STATE.discoveryFrozen || directory == null) {
+            // Mid-reset state is half cleared; wait for the next interval
+            return;
+        }
+
+        BordersSavedData current = BordersSavedData.fromGameState(BordersMod.STATE);
+        current.borderHistory = null;
+        current.journalSeq = 0L;
+
+        boolean base = last == null || deltasSinceBase >= DELTAS_PER_BASE;
+        byte[] bytes;
+        try {
+            bytes = base ? encodeBase(current) : encodeDelta(last, current);
+        } catch (IOException e) {
+            // In-memory streams don't throw
+            throw new UncheckedIOException(e);
+        }
+        if (bytes == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Path path = directory.resolve(String.format("%010d-%d-%s.bin", nextIndex, now, base ? "base" : "delta"));
+        CHECKPOINTS.add(new Checkpoint(nextIndex++, now, base, path, bytes.length));
+        last = current;
+        deltasSinceBase = base ? 0 : deltasSinceBase + 1;
+
+        List<Path> pruned = prune();
+        runIo(() -> {
+            BordersSavedData.writeAtomically(path, bytes);
+            for (Path old : pruned) {
+                Files.deleteIfExists(old);
+            }
+        });
+    }
+
+    /**
+     * Drops whole chains, oldest first, while the checkpoints exceed the budget.
+     *
+     * @return files to delete
+     */
+    private static List<Path> prune() {
+        long budget = BordersMod.STATE.checkpointBudgetMb * 1024L * 1024L;
+        long total = 0L;
+        for (Checkpoint checkpoint : CHECKPOINTS) {
+            total += checkpoint.size();
+        }
+
+        List<Path> pruned = new ArrayList<>();
+        while (total > budget) {
+            int nextBase = -1;
+            for (int i = 1; i < CHECKPOINTS.size(); i++) {
+                if (CHECKPOINTS.get(i).base()) {
+                    nextBase = i;
+                    break;
+                }
+            }
+            if (nextBase < 0) {
+                // Only the newest chain is left: start a new one at the next checkpoint
+                deltasSinceBase = DELTAS_PER_BASE;
+                break;
+            }
+
+            for (int i = 0; i < nextBase; i++) {
+                Checkpoint removed = CHECKPOINTS.remove(0);
+                total -= removed.size();
+                pruned.add(removed.path());
+            }
+        }
+        return pruned;
+    }
+
+    // ------------------------------------------------------------------------
+    // Rollback
+    // ------------------------------------------------------------------------
+
+    /**
+     * Restores the state of the newest checkpoint at least {@code minutes}
+     * old: items, scores, border, center and config. The border history is
+     * kept and gets a ROLLBACK entry.
+     *
+     * The current state is checkpointed first, so a rollback can itself be
+     * rolled back.
+     *
+     * @return epoch millis of the restored checkpoint, or -1 if none is that old
+     * @throws IOException if a checkpoint file of the chain is unreadable
+     */
+    public static long rollback(MinecraftServer server, int minutes) throws IOException {
+        long target = System.currentTimeMillis() - minutes * 60_000L;
+
+        // Snapshot the present before it is replaced (may also prune old chains)
+        checkpoint(server);
+        pendingIo.join();
+
+        int index = -1;
+        for (int i = CHECKPOINTS.size() - 1; i >= 0; i--) {
+            if (CHECKPOINTS.get(i).time() <= target) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return -1L;
+        }
+
+        int baseIndex = index;
+        while (!CHECKPOINTS.get(baseIndex).base()) {
+            baseIndex--;
+        }
+
+        BordersSavedData restored = reconstruct(baseIndex, index);
+
+        BorderHistory history = BordersMod.STATE.BORDER_HISTORY;
+        restored.borderHistory = history.toSnapshot();
+
+        double oldSize = BordersMod.STATE.currentBorderSize;
+        ProfileManager.applySnapshot(server, restored);
+        double newSize = BordersMod.STATE.currentBorderSize;
+
+        history.record(server.overworld().getGameTime(), newSize - oldSize, newSize, BorderChangeSource.ROLLBACK, null);
+        if (newSize < oldSize) {
+            ChunkReleaseManager.releaseChunksOutsideBorder(server);
+        }
+
+        // Journal the restored state (a crash must not replay the rolled-back
+        // changes on top of the last snapshot), then snapshot it right away
+        JournalManager.logRestore(BordersMod.STATE);
+        PersistenceManager.saveAsync(server);
+
+        Checkpoint checkpoint = CHECKPOINTS.get(index);
+        BordersMod.LOGGER.info("[Borders] Rolled back to checkpoint {} ({} delta(s) applied).",
+                checkpoint.path().getFileName(), index - baseIndex);
+        return checkpoint.time();
+    }
+
+    /** Base at {@code baseIndex} plus every delta up to {@code index}. */
+    private static BordersSavedData reconstruct(int baseIndex, int index) throws IOException {
+        BordersSavedData state = null;
+
+        for (int i = baseIndex; i <= index; i++) {
+            Path path = CHECKPOINTS.get(i).path();
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(Files.newInputStream(path)))) {
+                int version = in.readInt();
+                if (version > VERSION) {
+                    throw new IOException("Checkpoint version " + version + " is newer than supported");
+                }
+                byte kind = in.readByte();
+                in.readLong(); // time (also in the file name)
+
+                if (kind == BASE) {
+                    state = BordersBinaryFormat.decode(ByteBuffer.wrap(readBytes(in)));
+                } else if (state != null) {
+                    state = applyDelta(state, in, version);
+                } else {
+                    throw new IOException("Checkpoint chain does not start with a base");
+                }
+            }
+        }
+        return state;
+    }
+
+    // ------------------------------------------------------------------------
+    // Encoding
+    // ------------------------------------------------------------------------
+
+    private static byte[] encodeBase(BordersSavedData current) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            writeHeader(out, BASE);
+            writeBytes(out, current.toBytes());
+        }
+        return bytes.toByteArray();
+    }
+
+    /** @return the compressed delta, or null if nothing changed */
+    private static byte[] encodeDelta(BordersSavedData previous, BordersSavedData current) throws IOException {
+        List<String> added = new ArrayList<>();
+        for (String id : current.obtainedItemIds) {
+            if (!previous.obtainedItemIds.contains(id)) {
+                added.add(id);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String id : previous.obtainedItemIds) {
+            if (!current.obtainedItemIds.contains(id)) {
+                removed.add(id);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> scoreDeltas = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : current.playerScores.entrySet()) {
+            int delta = entry.getValue() - previous.playerScores.getOrDefault(entry.getKey(), 0);
+            if (delta != 0 || !previous.playerScores.containsKey(entry.getKey())) {
+                scoreDeltas.add(Map.entry(entry.getKey(), delta));
+            }
+        }
+        List<String> removedScores = new ArrayList<>();
+        for (String player : previous.playerScores.keySet()) {
+            if (!current.playerScores.containsKey(player)) {
+                removedScores.add(player);
+            }
+        }
+
+        // UUID scores: delta plus the name whenever it is new or changed
+        List<UUID> changedPlayers = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> entry : current.scores.entrySet()) {
+            UUID player = entry.getKey();
+            if (!previous.scores.containsKey(player)
+                    || !entry.getValue().equals(previous.scores.get(player))
+                    || !Objects.equals(current.playerNames.get(player), previous.playerNames.get(player))) {
+                changedPlayers.add(player);
+            }
+        }
+        List<UUID> removedPlayers = new ArrayList<>();
+        for (UUID player : previous.scores.keySet()) {
+            if (!current.scores.containsKey(player)) {
+                removedPlayers.add(player);
+            }
+        }
+
+        byte[] core = encodeCore(current);
+        if (added.isEmpty() && removed.isEmpty() && scoreDeltas.isEmpty() && removedScores.isEmpty()
+                && changedPlayers.isEmpty() && removedPlayers.isEmpty()
+                && Arrays.equals(core, encodeCore(previous))) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            writeHeader(out, DELTA);
+            writeStrings(out, added);
+            writeStrings(out, removed);
+            out.writeInt(scoreDeltas.size());
+            for (Map.Entry<String, Integer> entry : scoreDeltas) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+            writeStrings(out, removedScores);
+            out.writeInt(changedPlayers.size());
+            for (UUID player : changedPlayers) {
+                writeUuid(out, player);
+                String name = current.playerNames.get(player);
+                out.writeUTF(name != null ? name : "");
+                out.writeInt(current.scores.get(player) - previous.scores.getOrDefault(player, 0));
+            }
+            out.writeInt(removedPlayers.size());
+            for (UUID player : removedPlayers) {
+                writeUuid(out, player);
+            }
+            writeBytes(out, core);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static BordersSavedData applyDelta(BordersSavedData state, DataInputStream in, int version) throws IOException {
+        state.obtainedItemIds.addAll(readStrings(in));
+        state.obtainedItemIds.removeAll(new HashSet<>(readStrings(in)));
+
+        int scoreCount = readCount(in);
+        for (int i = 0; i < scoreCount; i++) {
+            state.playerScores.merge(in.readUTF(), in.readInt(), Integer::sum);
+        }
+        for (String player : readStrings(in)) {
+            state.playerScores.remove(player);
+        }
+
+        if (version >= 2) {
+            int changed = readCount(in);
+            for (int i = 0; i < changed; i++) {
+                UUID player = readUuid(in);
+                String name = in.readUTF();
+                if (!name.isEmpty()) {
+                    state.playerNames.put(player, name);
+                }
+                state.scores.merge(player, in.readInt(), Integer::sum);
+            }
+            int removedCount = readCount(in);
+            for (int i = 0; i < removedCount; i++) {
+                UUID player = readUuid(in);
+                state.scores.remove(player);
+                state.playerNames.remove(player);
+            }
+        }
+
+        // Core fields come from the delta; the collections carry over
+        BordersSavedData core = BordersBinaryFormat.decode(ByteBuffer.wrap(readBytes(in)));
+        core.obtainedItemIds = state.obtainedItemIds;
+        core.playerScores = state.playerScores;
+        core.scores = state.scores;
+        core.playerNames = state.playerNames;
+        return core;
+    }
+
+    /** The snapshot without items and scores: border, center, config, shape, dimensions. */
+    private static byte[] encodeCore(BordersSavedData data) {
+        Set<String> items = data.obtainedItemIds;
+        Map<String, Integer> scores = data.playerScores;
+        Map<UUID, Integer> uuidScores = data.scores;
+        Map<UUID, String> names = data.playerNames;
+        try {
+            data.obtainedItemIds = Set.of();
+            data.playerScores = Map.of();
+            data.scores = Map.of();
+            data.playerNames = Map.of();
+            return data.toBytes();
+        } finally {
+            data.obtainedItemIds = items;
+            data.playerScores = scores;
+            data.scores = uuidScores;
+            data.playerNames = names;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    private static void runIo(IoTask task) {
+        pendingIo = pendingIo.thenRunAsync(() -> {
+            try {
+                task.run();
+            } catch (IOException e) {
+                BordersMod.LOGGER.error("[Borders] Checkpoint file IO failed", e);
+            }
+        }, Util.ioPool());
+    }
+
+    /** Parses "<index>-<millis>-base|delta.bin", or null for other files. */
+    private static Checkpoint parse(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(".bin")) {
+            return null;
+        }
+        String[] parts = name.substring(0, name.length() - ".bin".length()).split("-");
+        if (parts.length != 3 || !(parts[2].equals("base") || parts[2].equals("delta"))) {
+            return null;
+        }
+        try {
+            return new Checkpoint(
+                    Long.parseLong(parts[0]),
+                    Long.parseLong(parts[1]),
+                    parts[2].equals("base"),
+                    path,
+                    Files.size(path)
+            );
+        } catch (NumberFormatException | IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, byte kind) throws IOException {
+        out.writeInt(VERSION);
+        out.writeByte(kind);
+        out.writeLong(System.currentTimeMillis());
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a length-prefixed byte array. The stream is inflated, so the
+     * remaining size is unknown: the buffer grows with the data actually
+     * read, and a length the file cannot back fails with EOFException.
+     */
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = readCount(in);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Checkpoint truncated: " + bytes.length + " of " + length + " bytes");
+        }
+        return bytes;
+    }
+
+    /** Reads an element count; negative counts mean a corrupt file. */
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt checkpoint: negative count " + count);
+        }
+        return count;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        // Not presized from the file: a corrupt count must not allocate
+        List<String> values = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,89 @@
+package com.borders.chunk;
+
+import com.borders.BordersMod;
+import com.borders.border.BorderManager;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * Releases chunk tickets that keep chunks loaded far outside the border.
+ *
+ * After the border shrinks (death shrink, /borders shrink, /borders reset),
+ * chunks that used to be playable can stay resident forever if something
+ * force-loads them. This pass walks every dimension, finds force-loaded
+ * chunks that lie entirely outside the new border plus the server view
+ * distance, and drops their tickets.
+ *
+ * Once a chunk has no tickets left its ticket level falls below the load
+ * threshold and vanilla's ChunkMap unloads it (and saves it) on its normal
+ * unload pass — we never unload chunks by hand.
+ */
+public class ChunkReleaseManager {
+
+    /**
+     * Releases force-load tickets for chunks entirely outside the border + view margin
+     * in every loaded dimension.
+     *
+     * @return Total number of chunks whose tickets were released
+     */
+    public static int releaseChunksOutsideBorder(MinecraftServer server) {
+        // Keep one view distance of chunks around the border, so players standing
+        // at the edge never see chunks disappear in front of them.
+        int marginChunks = server.getPlayerList().getViewDistance();
+
+        int released = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            released += releaseForLevel(level, marginChunks);
+        }
+
+        if (released > 0) {
+            BordersMod.LOGGER.info(
+                    "[Borders] Released tickets for {} chunk(s) outside the border (margin {} chunks).",
+                    released,
+                    marginChunks
+            );
+        }
+
+        return released;
+    }
+
+    private static int releaseForLevel(ServerLevel level, int marginChunks) {
+        if (level.getForceLoadedChunks().isEmpty()) {
+            return 0;
+        }
+
+        // Use the bounds from GameState: empty dimensions may not have their
+        // WorldBorder materialized yet (see BorderManager.materialize).
+        BorderManager.Bounds border = BorderManager.targetBounds(level.dimension());
+
+        // Chunk range that is still "in play": every chunk touching the border
+        // plus marginChunks on each side.
+        int minChunkX = (Mth.floor(border.minX()) >> 4) - marginChunks;
+        int maxChunkX = (Mth.floor(border.maxX()) >> 4) + marginChunks;
+        int minChunkZ = (Mth.floor(border.minZ()) >> 4) - marginChunks;
+        int maxChunkZ = (Mth.floor(border.maxZ()) >> 4) + marginChunks;
+
+        // Collect first: setChunkForced mutates the forced set we're iterating
+        LongList outside = new LongArrayList();
+        for (long packed : level.getForceLoadedChunks()) {
+            int chunkX = ChunkPos.getX(packed);
+            int chunkZ = ChunkPos.getZ(packed);
+
+            if (chunkX < minChunkX || chunkX > maxChunkX
+                    || chunkZ < minChunkZ || chunkZ > maxChunkZ) {
+                outside.add(packed);
+            }
+        }
+
+        for (int i = 0; i < outside.size(); i++) {
+            long packed = outside.getLong(i);
+            level.setChunkForced(ChunkPos.getX(packed), ChunkPos.getZ(packed), false);
+        }
+
+        return outside.size();
+    }
+}
@@ -2,25 +2,44 @@ package com.borders.commands;
 
 import com.borders.BordersMod;
 import com.borders.border.BorderManager;
+import com.borders.checkpoint.CheckpointManager;
+import com.borders.containment.ContainmentManager;
+import com.borders.failsafe.FailsafeManager;
+import com.borders.history.BorderChangeSource;
+import com.borders.history.BorderHistory;
+import com.borders.journal.JournalManager;
 import com.borders.messages.MessageManager;
+import com.borders.persistence.PersistenceManager;
+import com.borders.profile.ProfileManager;
+import com.borders.reset.ResetManager;
+import com.borders.scoreboard.DiscoveryScores;
+import com.borders.scoreboard.Leaderboard;
 import com.borders.scoreboard.ScoreboardManager;
 import com.borders.book.BookManager;
+import com.borders.shape.PolygonShape;
+import com.borders.shape.ShapeManager;
+import com.borders.state.BordersSavedData;
+import com.borders.state.DimensionBorderSettings;
+import com.borders.warning.WarningManager;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
 
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.server.players.PlayerList;
-import net.minecraft.world.entity.player.Inventory;
-import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Registers and defines all /borders commands.
@@ -31,6 +50,9 @@ import java.util.Collections;
  */
 public class CommandManager {
 
+    /** Rows per page of /borders top. */
+    private static final int TOP_PAGE_SIZE = 10;
+
     /**
      * Registers the root command `/borders` and all its subcommands.
      */
@@ -57,12 +79,13 @@ public class CommandManager {
                         .then(Commands.literal("start").executes(ctx -> {
                             BordersMod.STATE.gameActive = true;
                             BordersMod.STATE.failsafeEnabled = true;
+                            configChanged();
                             BordersMod.STATE.lastDiscoveryTick = BordersMod.STATE.globalTick;
 
-                            // Ensure scoreboard objective exists and is shown
+                            // Ensure the sidebar exists and is shown
                             MinecraftServer server = ctx.getSource().getServer();
-                            ScoreboardManager.getOrCreateDiscoveryObjective(server);
-                            ScoreboardManager.updateBorderSizeLine(server);
+                            FailsafeManager.reschedule(server);
+                            ScoreboardManager.getOrCreateSidebarObjective(server);
 
                             ctx.getSource().sendSystemMessage(
                                     Component.literal("[Borders] Game started.")
@@ -76,6 +99,10 @@ public class CommandManager {
                         .then(Commands.literal("stop").executes(ctx -> {
                             BordersMod.STATE.gameActive = false;
                             BordersMod.STATE.failsafeEnabled = false;
+                            configChanged();
+
+                            // Cancels the pending failsafe deadline
+                            FailsafeManager.reschedule(ctx.getSource().getServer());
 
                             ctx.getSource().sendSystemMessage(
                                     Component.literal("[Borders] Game stopped.")
@@ -90,9 +117,9 @@ public class CommandManager {
                         .then(Commands.literal("reload").executes(ctx -> {
                             MinecraftServer server = ctx.getSource().getServer();
 
-                            // Rebuild / ensure the discovery objective + border size line
-                            ScoreboardManager.getOrCreateDiscoveryObjective(server);
-                            ScoreboardManager.updateBorderSizeLine(server);
+                            // Rebuild the sidebar (objective, border size line, ranking)
+                            ScoreboardManager.invalidate();
+                            ScoreboardManager.getOrCreateSidebarObjective(server);
 
                             // Re-apply borders if we’ve ever initialized them
                             if (BordersMod.STATE.BORDER_INITIALIZED) {
@@ -119,7 +146,9 @@ public class CommandManager {
                                             int seconds = IntegerArgumentType.getInteger(ctx, "seconds");
 
                                             BordersMod.STATE.borderFailsafeDelayTicks = seconds * 20L;
+                                            configChanged();
                                             BordersMod.STATE.lastDiscoveryTick = BordersMod.STATE.globalTick;
+                                            FailsafeManager.reschedule(ctx.getSource().getServer());
 
                                             ctx.getSource().sendSystemMessage(
                                                     Component.literal("[Borders] Inactivity expansion timer set to "
@@ -140,6 +169,7 @@ public class CommandManager {
                                             int perSide = IntegerArgumentType.getInteger(ctx, "blocksPerSide");
 
                                             BordersMod.STATE.discoveryGrowthBlocksPerSide = perSide;
+                                            configChanged();
 
                                             int diameter = perSide * 2;
 
@@ -157,6 +187,38 @@ public class CommandManager {
                                 )
                         )
 
+                        // ------------------------------------------------------------
+                        // /borders setwarning <blocks>
+                        // (action-bar warning distance from the edge, 0 = off)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("setwarning")
+                                .then(Commands.argument("blocks", IntegerArgumentType.integer(0, 256))
+                                        .executes(ctx -> {
+                                            int blocks = IntegerArgumentType.getInteger(ctx, "blocks");
+
+                                            BordersMod.STATE.borderWarningDistance = blocks;
+                                            configChanged();
+
+                                            // Re-bucket everyone against the new distance
+                                            WarningManager.invalidateAll(ctx.getSource().getServer());
+
+                                            if (blocks == 0) {
+                                                ctx.getSource().sendSystemMessage(
+                                                        Component.literal("[Borders] Border warnings disabled.")
+                                                );
+                                            } else {
+                                                ctx.getSource().sendSystemMessage(
+                                                        Component.literal("[Borders] Border warning distance set to ")
+                                                                .append(Component.literal(String.valueOf(blocks))
+                                                                        .withStyle(style -> style.withColor(0xFFD700)))
+                                                                .append(Component.literal(" blocks."))
+                                                );
+                                            }
+                                            return 1;
+                                        })
+                                )
+                        )
+
                         // ------------------------------------------------------------
                         // /borders setdeathshrink <blocksPerSide>
                         // (shrink per player death)
@@ -167,6 +229,7 @@ public class CommandManager {
                                             int perSide = IntegerArgumentType.getInteger(ctx, "blocksPerSide");
 
                                             BordersMod.STATE.deathShrinkBlocksPerSide = perSide;
+                                            configChanged();
                                             int diameter = perSide * 2;
 
                                             ctx.getSource().sendSystemMessage(
@@ -183,6 +246,52 @@ public class CommandManager {
                                 )
                         )
 
+                        // ------------------------------------------------------------
+                        // /borders setdeathwindow <ticks>
+                        // (deaths within this window shrink the border once)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("setdeathwindow")
+                                .then(Commands.argument("ticks", IntegerArgumentType.integer(1, 200))
+                                        .executes(ctx -> {
+                                            int ticks = IntegerArgumentType.getInteger(ctx, "ticks");
+
+                                            BordersMod.STATE.deathWindowTicks = ticks;
+                                            configChanged();
+
+                                            ctx.getSource().sendSystemMessage(
+                                                    Component.literal("[Borders] Deaths within ")
+                                                            .append(Component.literal(String.valueOf(ticks))
+                                                                    .withStyle(style -> style.withColor(0xFFAA00)))
+                                                            .append(Component.literal(" tick(s) now shrink the border once."))
+                                            );
+                                            return 1;
+                                        })
+                                )
+                        )
+
+                        // ------------------------------------------------------------
+                        // /borders setcheckpointbudget <mib>
+                        // (disk space kept for /borders rollback checkpoints)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("setcheckpointbudget")
+                                .then(Commands.argument("mib", IntegerArgumentType.integer(1, 1024))
+                                        .executes(ctx -> {
+                                            int mib = IntegerArgumentType.getInteger(ctx, "mib");
+
+                                            BordersMod.STATE.checkpointBudgetMb = mib;
+                                            configChanged();
+
+                                            ctx.getSource().sendSystemMessage(
+                                                    Component.literal("[Borders] Checkpoints may now use up to ")
+                                                            .append(Component.literal(mib + " MiB")
+                                                                    .withStyle(style -> style.withColor(0xFFAA00)))
+                                                            .append(Component.literal(" of disk."))
+                                            );
+                                            return 1;
+                                        })
+                                )
+                        )
+
                         // ------------------------------------------------------------
                         // /borders ignore <count>
                         // Ignore first N unique discoveries for growth & scores,
@@ -194,6 +303,7 @@ public class CommandManager {
                                             int count = IntegerArgumentType.getInteger(ctx, "count");
 
                                             BordersMod.STATE.ignoredDiscoveries = count;
+                                            configChanged();
 
                                             ctx.getSource().sendSystemMessage(
                                                     Component.literal("[Borders] Will ignore first ")
@@ -216,6 +326,7 @@ public class CommandManager {
                                 .executes(ctx -> {
                                     boolean newValue = !BordersMod.STATE.deathShrinkEnabled;
                                     BordersMod.STATE.deathShrinkEnabled = newValue;
+                                    configChanged();
 
                                     ctx.getSource().sendSystemMessage(
                                             Component.literal("[Borders] Death shrink mechanic: ")
@@ -230,6 +341,89 @@ public class CommandManager {
                                 })
                         )
 
+                        // ------------------------------------------------------------
+                        // /borders dimension <dimension> scale <factor>
+                        // /borders dimension <dimension> offset <x> <z>
+                        // /borders dimension <dimension> clear
+                        // (per-dimension border geometry, e.g. Nether at 1/8)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("dimension")
+                                .then(Commands.argument("dimension", DimensionArgument.dimension())
+                                        .then(Commands.literal("scale")
+                                                .then(Commands.argument("factor", DoubleArgumentType.doubleArg(0.001, 1000.0))
+                                                        .executes(ctx -> {
+                                                            ServerLevel level = DimensionArgument.getDimension(ctx, "dimension");
+                                                            double factor = DoubleArgumentType.getDouble(ctx, "factor");
+
+                                                            editableDimensionSettings(level).scale = factor;
+                                                            return applyDimensionSettings(ctx.getSource(), level);
+                                                        })
+                                                )
+                                        )
+                                        .then(Commands.literal("offset")
+                                                .then(Commands.argument("x", DoubleArgumentType.doubleArg())
+                                                        .then(Commands.argument("z", DoubleArgumentType.doubleArg())
+                                                                .executes(ctx -> {
+                                                                    ServerLevel level = DimensionArgument.getDimension(ctx, "dimension");
+                                                                    DimensionBorderSettings settings = editableDimensionSettings(level);
+
+                                                                    settings.offsetX = DoubleArgumentType.getDouble(ctx, "x");
+                                                                    settings.offsetZ = DoubleArgumentType.getDouble(ctx, "z");
+                                                                    return applyDimensionSettings(ctx.getSource(), level);
+                                                                })
+                                                        )
+                                                )
+                                        )
+                                        .then(Commands.literal("clear")
+                                                .executes(ctx -> {
+                                                    ServerLevel level = DimensionArgument.getDimension(ctx, "dimension");
+
+                                                    BordersMod.STATE.DIMENSION_SETTINGS.remove(dimensionId(level));
+                                                    return applyDimensionSettings(ctx.getSource(), level);
+                                                })
+                                        )
+                                )
+                        )
+
+                        // ------------------------------------------------------------
+                        // /borders shape square|circle
+                        // /borders shape regular <sides>
+                        // /borders shape polygon <x,z x,z x,z ...>
+                        // (unit-space vertices within -1..1, scaled with the border)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("shape")
+                                .then(Commands.literal("square")
+                                        .executes(ctx -> setShape(ctx.getSource(), "square", null))
+                                )
+                                .then(Commands.literal("circle")
+                                        .executes(ctx -> setShape(ctx.getSource(), "circle", null))
+                                )
+                                .then(Commands.literal("regular")
+                                        .then(Commands.argument("sides", IntegerArgumentType.integer(3, 64))
+                                                .executes(ctx -> {
+                                                    int sides = IntegerArgumentType.getInteger(ctx, "sides");
+                                                    return setShape(ctx.getSource(), "polygon",
+                                                            PolygonShape.regular(sides).vertices());
+                                                })
+                                        )
+                                )
+                                .then(Commands.literal("polygon")
+                                        .then(Commands.argument("vertices", StringArgumentType.greedyString())
+                                                .executes(ctx -> {
+                                                    String raw = StringArgumentType.getString(ctx, "vertices");
+                                                    double[] vertices = parseVertices(raw);
+                                                    if (vertices == null) {
+                                                        ctx.getSource().sendSystemMessage(
+                                                                Component.literal("[Borders] Vertices must look like: 0,-1 1,1 -1,1")
+                                                        );
+                                                        return 0;
+                                                    }
+                                                    return setShape(ctx.getSource(), "polygon", vertices);
+                                                })
+                                        )
+                                )
+                        )
+
                         // ------------------------------------------------------------
                         // /borders grow <blocks>
                         // (manual border grow)
@@ -250,18 +444,10 @@ public class CommandManager {
 
                                             double delta = blocks * 2.0;
 
-                                            BordersMod.STATE.currentBorderSize =
-                                                    BorderManager.changeBorderSize(
-                                                            overworld,
-                                                            BordersMod.STATE.currentBorderSize,
-                                                            delta
-                                                    );
-
-                                            // Sync all dimensions to the new size
-                                            BorderManager.applyBorderToAllDimensions(server);
-
-                                            // Update border size in scoreboard
-                                            ScoreboardManager.updateBorderSizeLine(server);
+                                            // Grows, syncs all dimensions and updates the scoreboard
+                                            BorderManager.resizeBorder(server, delta,
+                                                    BorderChangeSource.COMMAND_GROW,
+                                                    ctx.getSource().getTextName());
 
                                             ctx.getSource().sendSystemMessage(
                                                     Component.literal("[Borders] Border grown by " + blocks
@@ -293,25 +479,11 @@ public class CommandManager {
 
                                             double delta = blocks * 2.0;
 
-                                            BordersMod.STATE.currentBorderSize =
-                                                    BorderManager.changeBorderSize(
-                                                            overworld,
-                                                            BordersMod.STATE.currentBorderSize,
-                                                            -delta
-                                                    );
-
-                                            // Clamp minimum border size to vanilla starting size
-                                            if (BordersMod.STATE.currentBorderSize < 16.0) {
-                                                BordersMod.STATE.currentBorderSize = 16.0;
-                                                overworld.getWorldBorder()
-                                                        .setSize(BordersMod.STATE.currentBorderSize);
-                                            }
-
-                                            // Sync all dimensions to the new (possibly clamped) size
-                                            BorderManager.applyBorderToAllDimensions(server);
-
-                                            // Update border size in scoreboard
-                                            ScoreboardManager.updateBorderSizeLine(server);
+                                            // Shrinks (clamped to the vanilla starting size), syncs all
+                                            // dimensions, releases chunks and re-checks players
+                                            BorderManager.resizeBorder(server, -delta,
+                                                    BorderChangeSource.COMMAND_SHRINK,
+                                                    ctx.getSource().getTextName());
 
                                             ctx.getSource().sendSystemMessage(
                                                     Component.literal("[Borders] Border shrunk by " + blocks
@@ -323,15 +495,114 @@ public class CommandManager {
                                 )
                         )
 
+                        // ------------------------------------------------------------
+                        // /borders history [count]
+                        // (most recent border size changes, newest first)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("history")
+                                .executes(ctx -> showHistory(ctx.getSource(), 10))
+                                .then(Commands.argument("count", IntegerArgumentType.integer(1, 100))
+                                        .executes(ctx -> showHistory(ctx.getSource(),
+                                                IntegerArgumentType.getInteger(ctx, "count")))
+                                )
+                        )
+
+                        // ------------------------------------------------------------
+                        // /borders undo
+                        // (revert the most recent border size change)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("undo").executes(ctx -> {
+                            MinecraftServer server = ctx.getSource().getServer();
+
+                            BorderChangeSource undone = BorderManager.undoLastChange(server);
+                            if (undone == null) {
+                                ctx.getSource().sendSystemMessage(
+                                        Component.literal("[Borders] Nothing to undo (resets and rollbacks cannot be undone).")
+                                );
+                                return 0;
+                            }
+
+                            ctx.getSource().sendSystemMessage(
+                                    Component.literal("[Borders] Undid last change (" + undone.label()
+                                            + "). New size: " + BordersMod.STATE.currentBorderSize)
+                            );
+                            return 1;
+                        }))
+
+                        // ------------------------------------------------------------
+                        // /borders export json
+                        // /borders import json
+                        // (<world>/borders/borders_state.json, for editing the state by hand)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("export")
+                                .then(Commands.literal("json").executes(ctx -> {
+                                    MinecraftServer server = ctx.getSource().getServer();
+                                    try {
+                                        Path path = BordersSavedData.fromGameState(BordersMod.STATE).exportJson(server);
+                                        ctx.getSource().sendSystemMessage(
+                                                Component.literal("[Borders] State exported to " + path.getFileName() + ".")
+                                        );
+                                        return 1;
+                                    } catch (IOException e) {
+                                        BordersMod.LOGGER.error("[Borders] JSON export failed", e);
+                                        ctx.getSource().sendSystemMessage(
+                                                Component.literal("[Borders] Export failed: " + e.getMessage())
+                                        );
+                                        return 0;
+                                    }
+                                }))
+                        )
+                        .then(Commands.literal("import")
+                                .then(Commands.literal("json").executes(ctx -> importJsonState(ctx.getSource())))
+                        )
+
+                        // ------------------------------------------------------------
+                        // /borders rollback <minutes>
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("rollback")
+                                .then(Commands.argument("minutes", IntegerArgumentType.integer(1))
+                                        .executes(ctx -> rollback(
+                                                ctx.getSource(),
+                                                IntegerArgumentType.getInteger(ctx, "minutes")
+                                        ))
+                                )
+                        )
+
+                        // ------------------------------------------------------------
+                        // /borders top [page]
+                        // (discovery ranking, same index as the sidebar)
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("top")
+                                .executes(ctx -> showTop(ctx.getSource(), 1))
+                                .then(Commands.argument("page", IntegerArgumentType.integer(1))
+                                        .executes(ctx -> showTop(ctx.getSource(),
+                                                IntegerArgumentType.getInteger(ctx, "page")))
+                                )
+                        )
+
+                        // ------------------------------------------------------------
+                        // /borders profile
+                        // /borders profile switch <name>
+                        // ------------------------------------------------------------
+                        .then(Commands.literal("profile")
+                                .executes(ctx -> showProfiles(ctx.getSource()))
+                                .then(Commands.literal("switch")
+                                        .then(Commands.argument("name", StringArgumentType.word())
+                                                .executes(ctx -> switchProfile(
+                                                        ctx.getSource(),
+                                                        StringArgumentType.getString(ctx, "name")
+                                                ))
+                                        )
+                                )
+                        )
+
                         // ------------------------------------------------------------
                         // /borders reset
+                        // Runs as a staged job over several ticks (see ResetManager).
                         // ------------------------------------------------------------
                         .then(Commands.literal("reset").executes(ctx -> {
                             MinecraftServer server = ctx.getSource().getServer();
 
-                            // Reset scoreboard
-                            ScoreboardManager.resetDiscoveryScores(server);
-
                             ServerLevel overworld = server.getLevel(Level.OVERWORLD);
                             if (overworld == null) {
                                 ctx.getSource().sendSystemMessage(
@@ -340,48 +611,13 @@ public class CommandManager {
                                 return 0;
                             }
 
-                            PlayerList playerList = server.getPlayerList();
-
-                            // Clear all player inventories + teleport to spawn
-                            for (ServerPlayer player : playerList.getPlayers()) {
-
-                                // Clear inventory
-                                Inventory inv = player.getInventory();
-                                int size = inv.getContainerSize();
-                                for (int slot = 0; slot < size; slot++) {
-                                    inv.setItem(slot, ItemStack.EMPTY);
-                                }
-
-                                // Teleport to spawn if known
-                                if (BordersMod.STATE.initialSpawnPos != null) {
-                                    player.teleportTo(
-                                            overworld,
-                                            BordersMod.STATE.initialSpawnPos.getX() + 0.5,
-                                            BordersMod.STATE.initialSpawnPos.getY(),
-                                            BordersMod.STATE.initialSpawnPos.getZ() + 0.5,
-                                            Collections.emptySet(),  // no relative flags
-                                            player.getYRot(),
-                                            player.getXRot(),
-                                            false
-                                    );
-                                }
+                            if (!ResetManager.start(server, ctx.getSource())) {
+                                ctx.getSource().sendSystemMessage(
+                                        Component.literal("[Borders] A reset is already in progress.")
+                                );
+                                return 0;
                             }
 
-                            // Reset border (Overworld + sync to Nether/End inside)
-                            BorderManager.resetBorder(overworld);
-
-                            // Reset game state
-                            BordersMod.STATE.OBTAINED_ITEMS.clear();
-                            BordersMod.STATE.LAST_INVENTORIES.clear();
-                            BordersMod.STATE.globalTick = 0L;
-                            BordersMod.STATE.lastDiscoveryTick = 0L;
-                            BordersMod.STATE.gameActive = false;
-                            BordersMod.STATE.failsafeEnabled = false;
-
-                            ctx.getSource().sendSystemMessage(
-                                    Component.literal("[Borders] Game reset: border, items, and inventories cleared.")
-                            );
-
                             return 1;
                         }))
 
@@ -403,8 +639,9 @@ public class CommandManager {
                             boolean failsafeEnabled = BordersMod.STATE.failsafeEnabled;
 
                             double borderSize = BordersMod.STATE.currentBorderSize;
-                            double centerX = overworld.getWorldBorder().getCenterX();
-                            double centerZ = overworld.getWorldBorder().getCenterZ();
+                            // From GameState: the Overworld border may not be materialized yet
+                            double centerX = BordersMod.STATE.borderCenterX;
+                            double centerZ = BordersMod.STATE.borderCenterZ;
 
                             long globalTick = BordersMod.STATE.globalTick;
                             long lastDiscoveryTick = BordersMod.STATE.lastDiscoveryTick;
@@ -460,4 +697,315 @@ public class CommandManager {
 
         );
     }
+
+    // ------------------------------------------------------------------------
+    // Helpers for /borders dimension
+    // ------------------------------------------------------------------------
+
+    private static String dimensionId(ServerLevel level) {
+        return level.dimension().location().toString();
+    }
+
+    /** Returns the level's settings, creating an entry (defaults) if missing. */
+    private static DimensionBorderSettings editableDimensionSettings(ServerLevel level) {
+        return BordersMod.STATE.DIMENSION_SETTINGS.computeIfAbsent(
+                dimensionId(level), id -> new DimensionBorderSettings()
+        );
+    }
+
+    /** Re-applies borders after a geometry change and reports the result. */
+    private static int applyDimensionSettings(CommandSourceStack source, ServerLevel level) {
+        MinecraftServer server = source.getServer();
+        JournalManager.logDimensions(BordersMod.STATE);
+        PersistenceManager.markDirty();
+
+        if (BordersMod.STATE.BORDER_INITIALIZED) {
+            BorderManager.applyBorderToAllDimensions(server);
+
+            // The border may have moved away from players in that dimension
+            ContainmentManager.invalidateAll(server);
+            WarningManager.invalidateAll(server);
+        }
+
+        DimensionBorderSettings settings = BorderManager.settingsFor(level.dimension());
+        source.sendSystemMessage(
+                Component.literal("[Borders] " + dimensionId(level) + " border: scale ")
+                        .append(Component.literal(String.valueOf(settings.scale))
+                                .withStyle(style -> style.withColor(0xFFD700)))
+                        .append(Component.literal(", offset ("
+                                + settings.offsetX + ", " + settings.offsetZ + ")."))
+        );
+        return 1;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers for /borders import json
+    // ------------------------------------------------------------------------
+
+    /** Replaces the live state with <world>/borders/borders_state.json and persists it right away. */
+    private static int importJsonState(CommandSourceStack source) {
+        MinecraftServer server = source.getServer();
+
+        BordersSavedData imported = BordersSavedData.importJson(server);
+        if (imported == null) {
+            source.sendSystemMessage(
+                    Component.literal("[Borders] No readable borders_state.json found in the world's borders folder.")
+            );
+            return 0;
+        }
+
+        ProfileManager.applySnapshot(server, imported);
+
+        // Journal the imported state (a crash must not replay later changes
+        // on top of the pre-import snapshot), then snapshot it right away
+        JournalManager.logRestore(BordersMod.STATE);
+        PersistenceManager.saveAsync(server);
+
+        source.sendSystemMessage(Component.literal("[Borders] State imported from borders_state.json."));
+        return 1;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers for /borders rollback
+    // ------------------------------------------------------------------------
+
+    private static int rollback(CommandSourceStack source, int minutes) {
+        if (BordersMod.STATE.discoveryFrozen) {
+            source.sendSystemMessage(Component.literal("[Borders] Cannot roll back while a reset is running."));
+            return 0;
+        }
+
+        long restoredAt;
+        try {
+            restoredAt = CheckpointManager.rollback(source.getServer(), minutes);
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Rollback failed", e);
+            source.sendSystemMessage(Component.literal("[Borders] Rollback failed: " + e.getMessage()));
+            return 0;
+        }
+
+        if (restoredAt < 0) {
+            source.sendSystemMessage(
+                    Component.literal("[Borders] No checkpoint is " + minutes + " minute(s) old yet.")
+            );
+            return 0;
+        }
+
+        long minutesAgo = (System.currentTimeMillis() - restoredAt) / 60_000L;
+        source.sendSystemMessage(
+                Component.literal("[Borders] Rolled back to the state from ")
+                        .append(Component.literal(minutesAgo + " minute(s) ago")
+                                .withStyle(style -> style.withColor(0xFFD700)))
+                        .append(Component.literal(". Border: "
+                                + (int) BordersMod.STATE.currentBorderSize + " blocks, "
+                                + BordersMod.STATE.OBTAINED_ITEMS.size() + " items discovered."))
+        );
+        return 1;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers for /borders profile
+    // ------------------------------------------------------------------------
+
+    private static int showProfiles(CommandSourceStack source) {
+        String active = BordersMod.STATE.activeProfile;
+
+        source.sendSystemMessage(
+                Component.literal("[Borders] Active profile: ")
+                        .append(Component.literal(active)
+                                .withStyle(style -> style.withColor(0xFFD700)))
+        );
+        source.sendSystemMessage(
+                Component.literal("[Borders] Profiles: "
+                        + String.join(", ", ProfileManager.listProfiles(source.getServer())))
+        );
+        return 1;
+    }
+
+    private static int switchProfile(CommandSourceStack source, String name) {
+        if (!ProfileManager.isValidName(name)) {
+            source.sendSystemMessage(
+                    Component.literal("[Borders] Profile names may only use a-z, 0-9, '_' and '-' (max 32).")
+            );
+            return 0;
+        }
+        if (name.equals(BordersMod.STATE.activeProfile)) {
+            source.sendSystemMessage(Component.literal("[Borders] Profile " + name + " is already active."));
+            return 0;
+        }
+        if (BordersMod.STATE.discoveryFrozen) {
+            source.sendSystemMessage(Component.literal("[Borders] Cannot switch profiles while a reset is running."));
+            return 0;
+        }
+
+        boolean existed;
+        try {
+            existed = ProfileManager.switchTo(source.getServer(), name);
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Failed to load profile '{}'", name, e);
+            source.sendSystemMessage(
+                    Component.literal("[Borders] Could not load profile " + name + ": " + e.getMessage())
+            );
+            return 0;
+        }
+
+        source.sendSystemMessage(
+                Component.literal(existed ? "[Borders] Switched to profile " : "[Borders] Started new profile ")
+                        .append(Component.literal(name)
+                                .withStyle(style -> style.withColor(0xFFD700)))
+                        .append(Component.literal("."))
+        );
+        return 1;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers for /borders history
+    // ------------------------------------------------------------------------
+
+    private static int showHistory(CommandSourceStack source, int count) {
+        BorderHistory history = BordersMod.STATE.BORDER_HISTORY;
+        if (history.size() == 0) {
+            source.sendSystemMessage(Component.literal("[Borders] No border changes recorded yet."));
+            return 0;
+        }
+
+        int shown = Math.min(count, history.size());
+        long now = source.getServer().overworld().getGameTime();
+
+        source.sendSystemMessage(
+                Component.literal("[Borders] Last " + shown + " of " + history.size() + " border change(s):")
+        );
+
+        for (int age = 0; age < shown; age++) {
+            BorderChangeSource changeSource = history.source(age);
+            String player = history.playerName(age);
+            double delta = history.delta(age);
+
+            String line = " " + formatAgo(now - history.tick(age))
+                    + "  " + (delta >= 0 ? "+" : "") + (int) Math.round(delta)
+                    + " -> " + (int) Math.round(history.sizeAfter(age))
+                    + "  (" + (changeSource != null ? changeSource.label() : "unknown")
+                    + (player != null ? ", " + player : "") + ")";
+
+            source.sendSystemMessage(
+                    Component.literal(line)
+                            .withStyle(style -> style.withColor(delta >= 0 ? 0x55FF55 : 0xFF5555))
+            );
+        }
+        return shown;
+    }
+
+    private static int showTop(CommandSourceStack source, int page) {
+        DiscoveryScores scores = BordersMod.STATE.DISCOVERY_SCORES;
+        Leaderboard<UUID> ranking = scores.ranking();
+        if (ranking.size() == 0) {
+            source.sendSystemMessage(Component.literal("[Borders] No discoveries recorded yet."));
+            return 0;
+        }
+
+        int pages = (ranking.size() + TOP_PAGE_SIZE - 1) / TOP_PAGE_SIZE;
+        if (page > pages) {
+            source.sendSystemMessage(Component.literal("[Borders] Page " + page + " does not exist (" + pages + " page(s))."));
+            return 0;
+        }
+
+        int from = (page - 1) * TOP_PAGE_SIZE;
+        List<Leaderboard.Entry<UUID>> entries = ranking.entries(from, TOP_PAGE_SIZE);
+
+        source.sendSystemMessage(
+                Component.literal("[Borders] Top discoveries, page " + page + "/" + pages
+                        + " (" + ranking.size() + " player(s)):")
+        );
+
+        UUID self = source.getPlayer() != null ? source.getPlayer().getUUID() : null;
+        for (int i = 0; i < entries.size(); i++) {
+            Leaderboard.Entry<UUID> entry = entries.get(i);
+            Component line = Component.literal(" #" + (from + i + 1) + "  " + scores.nameOf(entry.key())
+                    + "  " + entry.score());
+            if (entry.key().equals(self)) {
+                line = line.copy().withStyle(style -> style.withColor(0xFFD700));
+            }
+            source.sendSystemMessage(line);
+        }
+        return entries.size();
+    }
+
+    /** Formats an age in ticks as e.g. "3m 20s ago". */
+    private static String formatAgo(long ticks) {
+        long seconds = Math.max(0L, ticks) / 20L;
+        if (seconds < 60) {
+            return seconds + "s ago";
+        }
+        long minutes = seconds / 60;
+        if (minutes < 60) {
+            return minutes + "m " + (seconds % 60) + "s ago";
+        }
+        return (minutes / 60) + "h " + (minutes % 60) + "m ago";
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers for /borders shape
+    // ------------------------------------------------------------------------
+
+    /** Parses "x,z x,z ..." into a flat {x0, z0, x1, z1, ...} array, or null if malformed. */
+    private static double[] parseVertices(String raw) {
+        String[] points = raw.trim().split("\\s+");
+        double[] vertices = new double[points.length * 2];
+
+        for (int i = 0; i < points.length; i++) {
+            String[] parts = points[i].split(",");
+            if (parts.length != 2) {
+                return null;
+            }
+            try {
+                vertices[i * 2] = Double.parseDouble(parts[0]);
+                vertices[i * 2 + 1] = Double.parseDouble(parts[1]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return vertices;
+    }
+
+    /** Journals a config change and marks the state for the next save. */
+    private static void configChanged() {
+        JournalManager.logConfig(BordersMod.STATE);
+        PersistenceManager.markDirty();
+    }
+
+    /** Validates and activates a new border shape, then re-checks every player. */
+    private static int setShape(CommandSourceStack source, String type, double[] vertices) {
+        String previousType = BordersMod.STATE.borderShape;
+        double[] previousVertices = BordersMod.STATE.polygonVertices;
+
+        BordersMod.STATE.borderShape = type;
+        BordersMod.STATE.polygonVertices = vertices;
+
+        try {
+            ShapeManager.reloadShape();
+        } catch (IllegalArgumentException e) {
+            // Keep the old shape if the new polygon is invalid
+            BordersMod.STATE.borderShape = previousType;
+            BordersMod.STATE.polygonVertices = previousVertices;
+            ShapeManager.reloadShape();
+
+            source.sendSystemMessage(Component.literal("[Borders] Invalid polygon: " + e.getMessage()));
+            return 0;
+        }
+
+        JournalManager.logShape(BordersMod.STATE);
+        PersistenceManager.markDirty();
+
+        // Players may now be outside the new outline
+        ContainmentManager.invalidateAll(source.getServer());
+        WarningManager.invalidateAll(source.getServer());
+
+        source.sendSystemMessage(
+                Component.literal("[Borders] Border shape set to ")
+                        .append(Component.literal(type)
+                                .withStyle(style -> style.withColor(0xFFD700)))
+                        .append(Component.literal("."))
+        );
+        return 1;
+    }
 }
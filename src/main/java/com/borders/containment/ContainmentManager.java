@@ -0,0 +1,161 @@
+package com.borders.containment;
+
+import com.borders.BordersMod;
+import com.borders.border.BorderManager;
+import com.borders.scheduler.SchedulerManager;
+import com.borders.scheduler.TimingWheel;
+import com.borders.teleport.TeleportManager;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps players inside the border after they are already in the world.
+ *
+ * BorderManager.clampPlayerInsideBorder only runs on join. Players can still
+ * end up outside later (border shrink on death, Nether portals, ender pearls),
+ * so this manager runs a continuous, incremental sweep:
+ *
+ *  - Each online player has a "next check" tick and a last known distance
+ *    to the border edge.
+ *  - The next check is scheduled from that distance: a player cannot cover
+ *    more than MAX_BLOCKS_PER_TICK, so someone 400 blocks inside can safely
+ *    wait a long time, while someone next to the edge is checked every tick.
+ *  - Checks are one-shot timers on the SchedulerManager wheel, so the sweep
+ *    cost scales with the number of at-risk players, not the total player count.
+ *
+ * Players found outside are moved to the nearest spot just inside the border,
+ * not all the way back to initialSpawnPos.
+ */
+public class ContainmentManager {
+
+    /**
+     * Pessimistic horizontal speed in blocks per tick.
+     * Rocket-boosted elytra flight peaks around 1.7 blocks/tick.
+     */
+    public static final double MAX_BLOCKS_PER_TICK = 2.0;
+
+    /** Upper bound between two checks of the same player (10 seconds). */
+    private static final int MAX_CHECK_INTERVAL_TICKS = 200;
+
+    /** How far inside the edge a relocated player is placed. */
+    private static final double RELOCATE_MARGIN = 1.5;
+
+    /** The pending check per player (timers on the SchedulerManager wheel). */
+    private static final Map<UUID, TimingWheel.Timer> SCHEDULED = new HashMap<>();
+
+    /** Last measured distance to the border edge (negative = outside). */
+    private static final Map<UUID, Double> DISTANCE_TO_EDGE = new HashMap<>();
+
+    /** Server handle for scheduled checks; set by the first track call. */
+    private static MinecraftServer server = null;
+
+    /**
+     * Starts tracking a player and checks them on the next tick.
+     * Used on join and whenever a player changes dimension.
+     */
+    public static void track(ServerPlayer player) {
+        server = player.level().getServer();
+        schedule(player.getUUID(), 1);
+    }
+
+    /** Stops tracking a player (on disconnect). */
+    public static void untrack(ServerPlayer player) {
+        UUID id = player.getUUID();
+        TimingWheel.Timer timer = SCHEDULED.remove(id);
+        if (timer != null) {
+            timer.cancel();
+        }
+        DISTANCE_TO_EDGE.remove(id);
+    }
+
+    /** Forgets all players. Called from SERVER_STOPPED (the scheduler is cleared too). */
+    public static void clear() {
+        SCHEDULED.clear();
+        DISTANCE_TO_EDGE.clear();
+        server = null;
+    }
+
+    /**
+     * Forces every tracked player to be re-checked on the next tick.
+     *
+     * Only needed when the border shrinks or moves; growth can only
+     * increase each player's distance to the edge.
+     */
+    public static void invalidateAll(MinecraftServer server) {
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            track(player);
+        }
+    }
+
+    /** Last measured distance to the edge for a player, or NaN if unknown. */
+    public static double getDistanceToEdge(UUID playerId) {
+        return DISTANCE_TO_EDGE.getOrDefault(playerId, Double.NaN);
+    }
+
+    /** Scheduled callback: runs one player's check. */
+    private static void runCheck(UUID playerId) {
+        SCHEDULED.remove(playerId);
+
+        ServerPlayer player = server != null ? server.getPlayerList().getPlayer(playerId) : null;
+        if (player == null) {
+            DISTANCE_TO_EDGE.remove(playerId);
+            return;
+        }
+
+        checkPlayer(player);
+    }
+
+    private static void checkPlayer(ServerPlayer player) {
+        if (!BordersMod.STATE.BORDER_INITIALIZED) {
+            // Nothing to enforce yet; look again later
+            schedule(player.getUUID(), MAX_CHECK_INTERVAL_TICKS);
+            return;
+        }
+
+        if (TeleportManager.isPending(player.getUUID())) {
+            // A queued teleport is about to move them anyway
+            schedule(player.getUUID(), 1);
+            return;
+        }
+
+        ServerLevel level = (ServerLevel) player.level();
+        double distance = BorderManager.distanceToEdge(level, player.getX(), player.getZ());
+
+        if (distance < 0) {
+            BorderManager.relocateInsideBorder(level, player, RELOCATE_MARGIN);
+            player.sendSystemMessage(
+                    Component.literal("You were pulled back inside the border.")
+                            .withStyle(style -> style.withColor(0xFF5555)),
+                    true
+            );
+            distance = BorderManager.distanceToEdge(level, player.getX(), player.getZ());
+        }
+
+        DISTANCE_TO_EDGE.put(player.getUUID(), distance);
+
+        // Earliest tick at which the player could possibly reach the edge
+        long delay = (long) Math.floor(Math.max(distance, 0.0) / MAX_BLOCKS_PER_TICK);
+        delay = Math.max(1L, Math.min(delay, MAX_CHECK_INTERVAL_TICKS));
+
+        schedule(player.getUUID(), delay);
+    }
+
+    private static void schedule(UUID playerId, long delayTicks) {
+        TimingWheel.Timer existing = SCHEDULED.get(playerId);
+        if (existing != null) {
+            if (existing.deadline() <= SchedulerManager.now() + delayTicks) {
+                // Already checked at least as early
+                return;
+            }
+            existing.cancel();
+        }
+
+        SCHEDULED.put(playerId, SchedulerManager.schedule(delayTicks, () -> runCheck(playerId)));
+    }
+}
@@ -2,15 +2,18 @@ package com.borders.death;
 
 import com.borders.BordersMod;
 import com.borders.border.BorderManager;
+import com.borders.history.BorderChangeSource;
 import com.borders.messages.MessageManager;
-import com.borders.scoreboard.ScoreboardManager;
+import com.borders.scheduler.SchedulerManager;
+import com.borders.scheduler.TimingWheel;
 import net.fabricmc.fabric.api.entity.event.v1.ServerLivingEntityEvents;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.players.PlayerList;
-import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Handles the v1.3 mechanic:
@@ -22,9 +25,20 @@ import net.minecraft.world.level.Level;
  *    - deathShrinkBlocksPerSide = 5 (10 diameter)
  *
  *  Minimum border size is always clamped to 16.0.
+ *
+ * Deaths are buffered for GameState.deathWindowTicks (default 1 tick) and
+ * then applied as ONE shrink: a creeper killing five players gives a single
+ * border sync, scoreboard update and broadcast naming all five, and the
+ * 16-block minimum is applied once to the combined shrink.
  */
 public class DeathManager {
 
+    /** Names of players who died in the current window, in death order. */
+    private static final List<String> PENDING_VICTIMS = new ArrayList<>();
+
+    /** Flush timer for the current window, or null when no deaths are buffered. */
+    private static TimingWheel.Timer flushTimer = null;
+
     /**
      * Registers the AFTER_DEATH event handler.
      * Should be called once from BordersMod.onInitialize().
@@ -38,51 +52,83 @@ public class DeathManager {
         });
     }
 
+    /** Drops buffered deaths without applying them. Called from SERVER_STOPPED. */
+    public static void clear() {
+        PENDING_VICTIMS.clear();
+        flushTimer = null;
+    }
+
+    /**
+     * Drops buffered deaths and cancels their flush, so deaths from a
+     * replaced game never shrink the new one's border.
+     * Called when a profile switch or import replaces the live state.
+     */
+    public static void discardPending() {
+        if (flushTimer != null) {
+            flushTimer.cancel();
+        }
+        clear();
+    }
+
     /**
      * Called whenever a ServerPlayer dies.
+     * Buffers the death; the first death of a window schedules the flush.
      */
     private static void handlePlayerDeath(ServerPlayer player) {
         // Basic feature gating
         if (!BordersMod.STATE.BORDER_INITIALIZED) return;
         if (!BordersMod.STATE.gameActive) return;
         if (!BordersMod.STATE.deathShrinkEnabled) return;
+        if (BordersMod.STATE.discoveryFrozen) return;  // reset in progress
 
-        int perSide = BordersMod.STATE.deathShrinkBlocksPerSide;
-        if (perSide <= 0) {
-            // Misconfigured; do nothing
-            return;
-        }
+        PENDING_VICTIMS.add(player.getName().getString());
 
-        MinecraftServer server = player.level().getServer();
-        ServerLevel overworld = server.getLevel(Level.OVERWORLD);
-        if (overworld == null) {
-            return;
+        if (flushTimer == null) {
+            MinecraftServer server = player.level().getServer();
+            flushTimer = SchedulerManager.schedule(
+                    BordersMod.STATE.deathWindowTicks,
+                    () -> flushDeaths(server)
+            );
         }
+    }
 
-        double diameterDelta = perSide * 2.0;
+    /**
+     * Applies every death buffered in the window as one aggregated shrink.
+     */
+    private static void flushDeaths(MinecraftServer server) {
+        flushTimer = null;
 
-        // Apply shrink on the overworld border first
-        BordersMod.STATE.currentBorderSize = BorderManager.changeBorderSize(
-                overworld,
-                BordersMod.STATE.currentBorderSize,
-                -diameterDelta
-        );
+        List<String> victims = new ArrayList<>(PENDING_VICTIMS);
+        PENDING_VICTIMS.clear();
+
+        // Conditions may have changed during the window (e.g. /borders stop or reset)
+        if (victims.isEmpty()
+                || !BordersMod.STATE.gameActive
+                || !BordersMod.STATE.deathShrinkEnabled
+                || BordersMod.STATE.discoveryFrozen) {
+            return;
+        }
 
-        // Clamp minimum size
-        if (BordersMod.STATE.currentBorderSize < 16.0) {
-            BordersMod.STATE.currentBorderSize = 16.0;
-            overworld.getWorldBorder().setSize(BordersMod.STATE.currentBorderSize);
+        int perSide = BordersMod.STATE.deathShrinkBlocksPerSide;
+        if (perSide <= 0) {
+            // Misconfigured; do nothing
+            return;
         }
 
-        // Sync all dimensions to the new (possibly clamped) size
-        BorderManager.applyBorderToAllDimensions(server);
+        int totalPerSide = perSide * victims.size();
+        double diameterDelta = totalPerSide * 2.0;
+
+        // One history entry for the whole window. The history's player is a
+        // real player name (interned, used for lookups): a single victim is
+        // recorded as such, several as no player; the broadcast names them all
+        String historyName = victims.size() == 1 ? victims.get(0) : null;
 
-        // Update border size in sidebar scoreboard
-        ScoreboardManager.updateBorderSizeLine(server);
+        // Shrink once (clamped once to the minimum size), sync dimensions,
+        // release chunks, re-check players and update the sidebar
+        BorderManager.resizeBorder(server, -diameterDelta, BorderChangeSource.DEATH, historyName);
 
-        // Build and broadcast a fun death-shrink message
-        String playerName = player.getName().getString();
-        Component[] lines = MessageManager.buildDeathShrinkMessages(playerName);
+        // Build and broadcast a single fun death-shrink message for everyone
+        Component[] lines = MessageManager.buildDeathShrinkMessages(victims, totalPerSide);
 
         PlayerList playerList = server.getPlayerList();
         for (Component line : lines) {
@@ -91,8 +137,8 @@ public class DeathManager {
 
         BordersMod.LOGGER.info(
                 "Death shrink triggered by {}: border shrunk by {} per side ({} diameter). New size: {}",
-                playerName,
-                perSide,
+                String.join(", ", victims),
+                totalPerSide,
                 diameterDelta,
                 BordersMod.STATE.currentBorderSize
         );
@@ -2,24 +2,26 @@ package com.borders.discovery;
 
 import com.borders.BordersMod;
 import com.borders.border.BorderManager;
+import com.borders.failsafe.FailsafeManager;
+import com.borders.history.BorderChangeSource;
+import com.borders.journal.JournalManager;
 import com.borders.messages.MessageManager;
+import com.borders.persistence.PersistenceManager;
 import com.borders.scoreboard.ScoreboardManager;
 import com.borders.state.GameState;
+import com.borders.state.ItemIdTable;
 
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.players.PlayerList;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.scores.Objective;
-import net.minecraft.world.scores.ScoreAccess;
 
 /**
  * Handles what happens when a player discovers a new item:
  *  - Builds and broadcasts a discovery message
- *  - Updates the scoreboard objective
+ *  - Updates the player's discovery score
  *  - Updates discovery timer
  *  - Expands the border if the game is active
  */
@@ -46,6 +48,8 @@ public class DiscoveryManager {
 
             // VERY IMPORTANT: still mark this item as obtained.
             state.OBTAINED_ITEMS.add(item);
+            JournalManager.logDiscovery(ItemIdTable.idOf(item), true);
+            PersistenceManager.markDirty();
 
             // Optional: log for debugging
             BordersMod.LOGGER.info(
@@ -77,14 +81,14 @@ public class DiscoveryManager {
         // Update leaderboard score
         // --------------------------------------------------------------------
 
-        Objective objective = ScoreboardManager.getOrCreateDiscoveryObjective(server);
+        // Increase score by 1 (keyed by UUID, so renames keep it)
+        BordersMod.STATE.DISCOVERY_SCORES.add(player.getUUID(), player.getScoreboardName(), 1);
+        ScoreboardManager.onScoreChanged(server, player.getUUID());
 
-        // In 1.21.x Mojang mappings, ServerPlayer implements ScoreHolder,
-        // and getOrCreatePlayerScore returns a ScoreAccess.
-        ScoreAccess score = server.getScoreboard().getOrCreatePlayerScore(player, objective);
-
-        // Increase score by 1
-        score.add(1);
+        // Journal the discovery + score right away (flushed at the end of this tick)
+        JournalManager.logDiscovery(ItemIdTable.idOf(item), false);
+        JournalManager.logScore(player.getUUID(), player.getScoreboardName(), 1);
+        PersistenceManager.markDirty();
 
         // --------------------------------------------------------------------
         // Discovery timing / failsafe baseline
@@ -92,23 +96,19 @@ public class DiscoveryManager {
 
         // Reset the discovery timer so failsafe doesn't trigger while items are being found
         BordersMod.STATE.lastDiscoveryTick = BordersMod.STATE.globalTick;
+        FailsafeManager.reschedule(server);
 
         // --------------------------------------------------------------------
         // Border expansion
         // --------------------------------------------------------------------
 
         if (BordersMod.STATE.BORDER_INITIALIZED) {
-            ServerLevel level = (ServerLevel) player.level();
-
             // Convert "blocks per side" into a diameter change for the world border
             int perSide = BordersMod.STATE.discoveryGrowthBlocksPerSide;
             double diameterDelta = perSide * 2.0;
 
-            BordersMod.STATE.currentBorderSize = BorderManager.changeBorderSize(
-                    level,
-                    BordersMod.STATE.currentBorderSize,
-                    diameterDelta
-            );
+            // Grows, syncs all dimensions and updates the sidebar
+            BorderManager.resizeBorder(server, diameterDelta, BorderChangeSource.DISCOVERY, playerName);
 
             BordersMod.LOGGER.info(
                     "World border expanded by {} blocks per side ({} diameter). New size: {}",
@@ -116,12 +116,6 @@ public class DiscoveryManager {
                     diameterDelta,
                     BordersMod.STATE.currentBorderSize
             );
-
-            // Sync border size + center across Overworld, Nether, and End
-            BorderManager.applyBorderToAllDimensions(server);
-
-            // Reflect the new border size in the sidebar
-            ScoreboardManager.updateBorderSizeLine(server);
         }
     }
 }
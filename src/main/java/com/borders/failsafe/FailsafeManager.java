@@ -2,14 +2,14 @@ package com.borders.failsafe;
 
 import com.borders.BordersMod;
 import com.borders.border.BorderManager;
+import com.borders.history.BorderChangeSource;
 import com.borders.messages.MessageManager;
-import com.borders.scoreboard.ScoreboardManager;
+import com.borders.scheduler.SchedulerManager;
+import com.borders.scheduler.TimingWheel;
 
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.players.PlayerList;
-import net.minecraft.world.level.Level;
 
 /**
  * Handles the automatic border expansion failsafe.
@@ -20,36 +20,69 @@ import net.minecraft.world.level.Level;
  * The amount expanded matches the configured discovery growth:
  *  - discoveryGrowthBlocksPerSide blocks on EACH side
  *  - i.e. (discoveryGrowthBlocksPerSide * 2) total diameter
+ *
+ * The failsafe is not polled: a single deadline is kept in the
+ * SchedulerManager and moved whenever a discovery happens.
  */
 public class FailsafeManager {
 
+    /** The armed failsafe deadline, or null when the failsafe can't fire. */
+    private static TimingWheel.Timer deadline = null;
+
     /**
-     * Called once per server tick by BordersMod.
+     * (Re)arms the failsafe deadline from the current GameState.
+     *
+     * Must be called whenever one of its inputs changes: a discovery (new
+     * lastDiscoveryTick), /borders start|stop|settimer, a reset, the first
+     * join (border initialized) and loading a save.
      *
-     * Logic:
-     *  1. Check if the border is initialized.
-     *  2. Check if the game is active.
-     *  3. Check if the failsafe is enabled.
-     *  4. Check if enough time passed since the last discovery.
-     *  5. If all conditions match → expand border automatically and announce it.
+     * The deadline is only armed while the border is initialized, the game
+     * is active and the failsafe is enabled; otherwise any armed deadline
+     * is cancelled.
      */
-    public static void tick(MinecraftServer server) {
+    public static void reschedule(MinecraftServer server) {
+        if (deadline != null) {
+            deadline.cancel();
+            deadline = null;
+        }
 
-        // Check our activation conditions
-        boolean shouldTrigger =
+        boolean armed =
                 BordersMod.STATE.BORDER_INITIALIZED &&
                         BordersMod.STATE.gameActive &&
-                        BordersMod.STATE.failsafeEnabled &&
-                        (BordersMod.STATE.globalTick - BordersMod.STATE.lastDiscoveryTick
-                                >= BordersMod.STATE.borderFailsafeDelayTicks);
+                        BordersMod.STATE.failsafeEnabled;
 
-        if (!shouldTrigger) {
-            return; // Failsafe not ready → skip
+        if (!armed) {
+            return;
         }
 
-        // Get the overworld level (primary border world)
-        ServerLevel overworld = server.getLevel(Level.OVERWORLD);
-        if (overworld == null) {
+        long remaining = BordersMod.STATE.lastDiscoveryTick
+                + BordersMod.STATE.borderFailsafeDelayTicks
+                - BordersMod.STATE.globalTick;
+
+        deadline = SchedulerManager.schedule(remaining, () -> trigger(server));
+    }
+
+    /** Drops the armed deadline. Called from SERVER_STOPPED. */
+    public static void clear() {
+        deadline = null;
+    }
+
+    /**
+     * Runs when the failsafe deadline is reached:
+     * expands the border automatically and announces it.
+     */
+    private static void trigger(MinecraftServer server) {
+        deadline = null;
+
+        if (BordersMod.STATE.discoveryFrozen) {
+            // Mid-reset; ResetManager re-arms the failsafe when it finishes
+            return;
+        }
+
+        if (BordersMod.STATE.globalTick - BordersMod.STATE.lastDiscoveryTick
+                < BordersMod.STATE.borderFailsafeDelayTicks) {
+            // Inputs changed without a reschedule; just re-arm
+            reschedule(server);
             return;
         }
 
@@ -57,14 +90,12 @@ public class FailsafeManager {
         int perSide = BordersMod.STATE.discoveryGrowthBlocksPerSide;
         double diameterDelta = perSide * 2.0;
 
-        BordersMod.STATE.currentBorderSize = BorderManager.changeBorderSize(
-                overworld,
-                BordersMod.STATE.currentBorderSize,
-                diameterDelta
-        );
+        // Grows, syncs all dimensions and updates the sidebar
+        BorderManager.resizeBorder(server, diameterDelta, BorderChangeSource.FAILSAFE, null);
 
-        // Update timer baseline so it doesn't immediately re-trigger
+        // Update timer baseline and arm the next deadline
         BordersMod.STATE.lastDiscoveryTick = BordersMod.STATE.globalTick;
+        reschedule(server);
 
         // Log for debugging
         BordersMod.LOGGER.info(
@@ -75,12 +106,6 @@ public class FailsafeManager {
                 BordersMod.STATE.currentBorderSize
         );
 
-        // Sync border size + center across Overworld, Nether, and End
-        BorderManager.applyBorderToAllDimensions(server);
-
-        // Reflect the new border size in the sidebar, if active
-        ScoreboardManager.updateBorderSizeLine(server);
-
         // Broadcast a styled message to all players
         PlayerList playerList = server.getPlayerList();
         Component[] lines = MessageManager.buildFailsafeExpansionMessages();
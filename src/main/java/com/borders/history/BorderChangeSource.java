@@ -0,0 +1,35 @@
+package com.borders.history;
+
+/**
+ * What caused a border size change, as recorded in BorderHistory.
+ *
+ * Stored by ordinal in the history ring and the save file:
+ * only ever append new values at the end.
+ */
+public enum BorderChangeSource {
+    DISCOVERY("discovery"),
+    FAILSAFE("failsafe"),
+    DEATH("death"),
+    COMMAND_GROW("/borders grow"),
+    COMMAND_SHRINK("/borders shrink"),
+    RESET("reset"),
+    ROLLBACK("/borders rollback");
+
+    private static final BorderChangeSource[] VALUES = values();
+
+    private final String label;
+
+    BorderChangeSource(String label) {
+        this.label = label;
+    }
+
+    /** Short human-readable name used in /borders history. */
+    public String label() {
+        return label;
+    }
+
+    /** Inverse of ordinal(); unknown values (newer saves) map to null. */
+    public static BorderChangeSource fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+    }
+}
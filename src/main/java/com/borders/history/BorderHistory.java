@@ -0,0 +1,237 @@
+package com.borders.history;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-capacity ring buffer of border size changes.
+ *
+ * Each event is stored column-wise in primitive arrays (tick, delta,
+ * resulting size, source ordinal, player index), so recording an event
+ * never allocates. When the ring is full the oldest event is overwritten.
+ *
+ * Player names are interned into a small table and referenced by index;
+ * a name is only added the first time that player appears in the history.
+ * Each time the ring wraps, the table is rebuilt from the live events, so
+ * players whose events were all overwritten drop out of it (and out of
+ * snapshots, which only carry the names their events use).
+ *
+ * Events are addressed by age: index 0 is the newest event.
+ */
+public class BorderHistory {
+
+    /** Player index used for events without a player (failsafe, reset, console). */
+    public static final int NO_PLAYER = -1;
+
+    private final long[] ticks;
+    private final double[] deltas;
+    private final double[] sizes;
+    private final byte[] sources;
+    private final int[] players;
+
+    /** Slot the next event is written to. */
+    private int head = 0;
+
+    /** Number of valid events (at most capacity). */
+    private int count = 0;
+
+    /** Interned player names, referenced by the players column. */
+    private final List<String> playerNames = new ArrayList<>();
+    private final Map<String, Integer> playerIndex = new HashMap<>();
+
+    public BorderHistory(int capacity) {
+        this.ticks = new long[capacity];
+        this.deltas = new double[capacity];
+        this.sizes = new double[capacity];
+        this.sources = new byte[capacity];
+        this.players = new int[capacity];
+    }
+
+    // ------------------------------------------------------------------------
+    // Recording
+    // ------------------------------------------------------------------------
+
+    /**
+     * Appends an event, overwriting the oldest one if the ring is full.
+     *
+     * @param tick       World game time of the change
+     * @param delta      Applied diameter change (after clamping)
+     * @param size       Border diameter after the change
+     * @param source     What caused the change
+     * @param playerName Responsible player, or null
+     */
+    public void record(long tick, double delta, double size, BorderChangeSource source, String playerName) {
+        ticks[head] = tick;
+        deltas[head] = delta;
+        sizes[head] = size;
+        sources[head] = (byte) source.ordinal();
+        players[head] = internPlayer(playerName);
+
+        head = (head + 1) % capacity();
+        if (count < capacity()) {
+            count++;
+        } else if (head == 0) {
+            // Every slot was rewritten since the last wrap
+            compactPlayerNames();
+        }
+    }
+
+    /** Drops the newest event (used by /borders undo). */
+    public void removeNewest() {
+        if (count == 0) {
+            return;
+        }
+        head = (head - 1 + capacity()) % capacity();
+        count--;
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+        playerNames.clear();
+        playerIndex.clear();
+    }
+
+    // ------------------------------------------------------------------------
+    // Queries (age 0 = newest)
+    // ------------------------------------------------------------------------
+
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return ticks.length;
+    }
+
+    public long tick(int age) {
+        return ticks[slot(age)];
+    }
+
+    public double delta(int age) {
+        return deltas[slot(age)];
+    }
+
+    public double sizeAfter(int age) {
+        return sizes[slot(age)];
+    }
+
+    /** Source of the event, or null if it was written by a newer version. */
+    public BorderChangeSource source(int age) {
+        return BorderChangeSource.fromOrdinal(sources[slot(age)]);
+    }
+
+    /** Player responsible for the event, or null. */
+    public String playerName(int age) {
+        int index = players[slot(age)];
+        return index == NO_PLAYER ? null : playerNames.get(index);
+    }
+
+    private int slot(int age) {
+        if (age < 0 || age >= count) {
+            throw new IndexOutOfBoundsException("History age " + age + " out of range (size " + count + ")");
+        }
+        return (head - 1 - age + capacity()) % capacity();
+    }
+
+    /** Rebuilds the name table from the names live events still reference. */
+    private void compactPlayerNames() {
+        List<String> oldNames = new ArrayList<>(playerNames);
+        playerNames.clear();
+        playerIndex.clear();
+
+        for (int age = count - 1; age >= 0; age--) {
+            int slot = slot(age);
+            if (players[slot] != NO_PLAYER) {
+                players[slot] = internPlayer(oldNames.get(players[slot]));
+            }
+        }
+    }
+
+    private int internPlayer(String name) {
+        if (name == null) {
+            return NO_PLAYER;
+        }
+
+        Integer index = playerIndex.get(name);
+        if (index == null) {
+            index = playerNames.size();
+            playerNames.add(name);
+            playerIndex.put(name, index);
+        }
+        return index;
+    }
+
+    // ------------------------------------------------------------------------
+    // Persistence (mirrored into BordersSavedData as plain arrays)
+    // ------------------------------------------------------------------------
+
+    /** Plain, Gson-friendly copy of the ring, oldest event first. */
+    public static class Snapshot {
+        public long[] ticks;
+        public double[] deltas;
+        public double[] sizes;
+        public byte[] sources;
+        public int[] players;
+        public List<String> playerNames;
+    }
+
+    public Snapshot toSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.ticks = new long[count];
+        snapshot.deltas = new double[count];
+        snapshot.sizes = new double[count];
+        snapshot.sources = new byte[count];
+        snapshot.players = new int[count];
+        snapshot.playerNames = new ArrayList<>();
+
+        // Only names of live events, renumbered in order of appearance
+        Map<Integer, Integer> remapped = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int slot = slot(count - 1 - i);
+            snapshot.ticks[i] = ticks[slot];
+            snapshot.deltas[i] = deltas[slot];
+            snapshot.sizes[i] = sizes[slot];
+            snapshot.sources[i] = sources[slot];
+
+            int player = players[slot];
+            if (player != NO_PLAYER) {
+                player = remapped.computeIfAbsent(player, index -> {
+                    snapshot.playerNames.add(playerNames.get(index));
+                    return snapshot.playerNames.size() - 1;
+                });
+            }
+            snapshot.players[i] = player;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Replaces the ring contents with a snapshot. If the snapshot holds more
+     * events than fit, only the newest ones are kept.
+     */
+    public void load(Snapshot snapshot) {
+        clear();
+        if (snapshot == null || snapshot.ticks == null) {
+            return;
+        }
+
+        List<String> names = snapshot.playerNames != null ? snapshot.playerNames : List.of();
+        for (int i = 0; i < snapshot.ticks.length; i++) {
+            ticks[head] = snapshot.ticks[i];
+            deltas[head] = snapshot.deltas[i];
+            sizes[head] = snapshot.sizes[i];
+            sources[head] = snapshot.sources[i];
+
+            int player = snapshot.players[i];
+            players[head] = player >= 0 && player < names.size() ? internPlayer(names.get(player)) : NO_PLAYER;
+
+            head = (head + 1) % capacity();
+            if (count < capacity()) {
+                count++;
+            }
+        }
+    }
+}
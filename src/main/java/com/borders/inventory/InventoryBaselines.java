@@ -0,0 +1,223 @@
+package com.borders.inventory;
+
+import com.borders.BordersMod;
+import com.borders.state.BordersSavedData;
+import com.borders.state.BordersWorldData;
+import com.borders.state.ItemIdTable;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.Item;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Persists each player's inventory baseline (GameState.LAST_INVENTORIES)
+ * so discovery detection stays accurate across restarts.
+ *
+ * Without it, a player's first tick after a restart only records a
+ * baseline, so an item gained in that window never counts as discovered.
+ *
+ * One small file per player: <world>/borders/baselines/<uuid>.bin
+ *   int version | int count | count x (UTF item id, int amount)
+ *
+ * Baselines are loaded lazily on join and written + dropped from memory on
+ * disconnect, so only online players' baselines are held in memory. Online
+ * players are also written before every world save, skipping files whose
+ * content hasn't changed.
+ *
+ * Encoding happens on the server thread; the writes (one fsync each) run
+ * in order on the vanilla IO pool, like CheckpointManager's, so many
+ * players never stall the tick.
+ */
+public class InventoryBaselines {
+
+    private static final int VERSION = 1;
+
+    /** Last bytes written (or queued) per online player, to skip unchanged writes. */
+    private static final Map<UUID, byte[]> LAST_WRITTEN = new HashMap<>();
+
+    /**
+     * Bytes queued for writing but not on disk yet. A player who rejoins
+     * before their disconnect write finished is loaded from here.
+     */
+    private static final Map<UUID, byte[]> UNFLUSHED = new ConcurrentHashMap<>();
+
+    /** Tail of the ordered IO chain. */
+    private static CompletableFuture<Void> pendingIo = CompletableFuture.completedFuture(null);
+
+    private static Path getDirectory(MinecraftServer server) {
+        return BordersWorldData.getDirectory(server).resolve("baselines");
+    }
+
+    private static Path getPath(MinecraftServer server, UUID uuid) {
+        return getDirectory(server).resolve(uuid + ".bin");
+    }
+
+    /**
+     * Loads the player's stored baseline into LAST_INVENTORIES.
+     * Called on join; a player without a file keeps the old behaviour
+     * (first tick records the baseline).
+     */
+    public static void load(MinecraftServer server, ServerPlayer player) {
+        UUID uuid = player.getUUID();
+        if (BordersMod.STATE.LAST_INVENTORIES.containsKey(uuid)) {
+            return;
+        }
+
+        Path path = getPath(server, uuid);
+        byte[] unflushed = UNFLUSHED.get(uuid);
+        if (unflushed == null && !Files.exists(path)) {
+            return;
+        }
+
+        try {
+            byte[] bytes = unflushed != null ? unflushed : Files.readAllBytes(path);
+            BordersMod.STATE.LAST_INVENTORIES.put(uuid, decode(bytes));
+            LAST_WRITTEN.put(uuid, bytes);
+        } catch (IOException e) {
+            BordersMod.LOGGER.warn("[Borders] Ignoring unreadable inventory baseline for {}", player.getName().getString(), e);
+        }
+    }
+
+    /**
+     * Writes the player's baseline and drops it from memory.
+     * Called on disconnect.
+     */
+    public static void unload(MinecraftServer server, ServerPlayer player) {
+        UUID uuid = player.getUUID();
+        save(server, uuid);
+        BordersMod.STATE.LAST_INVENTORIES.remove(uuid);
+        LAST_WRITTEN.remove(uuid);
+    }
+
+    /** Writes every in-memory baseline that changed. Called from BEFORE_SAVE. */
+    public static void saveAll(MinecraftServer server) {
+        for (UUID uuid : BordersMod.STATE.LAST_INVENTORIES.keySet()) {
+            save(server, uuid);
+        }
+    }
+
+    /**
+     * Deletes every stored baseline. Called by /borders reset together with
+     * clearing LAST_INVENTORIES, so a rejoining player can't bring back a
+     * pre-reset baseline.
+     */
+    public static void deleteAll(MinecraftServer server) {
+        LAST_WRITTEN.clear();
+
+        // Queued writes must not recreate files after the delete (rare: resets only)
+        pendingIo.join();
+        UNFLUSHED.clear();
+
+        Path directory = getDirectory(server);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Failed to delete inventory baselines", e);
+        }
+    }
+
+    /** Waits for queued writes and drops cached state. Called from SERVER_STOPPED. */
+    public static void clear() {
+        pendingIo.join();
+        pendingIo = CompletableFuture.completedFuture(null);
+        UNFLUSHED.clear();
+        LAST_WRITTEN.clear();
+    }
+
+    private static void save(MinecraftServer server, UUID uuid) {
+        Map<Item, Integer> baseline = BordersMod.STATE.LAST_INVENTORIES.get(uuid);
+        if (baseline == null) {
+            return;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = encode(baseline);
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Failed to encode inventory baseline for {}", uuid, e);
+            return;
+        }
+        if (Arrays.equals(bytes, LAST_WRITTEN.get(uuid))) {
+            return;
+        }
+        LAST_WRITTEN.put(uuid, bytes);
+        UNFLUSHED.put(uuid, bytes);
+
+        Path path = getPath(server, uuid);
+        pendingIo = pendingIo.thenRunAsync(() -> {
+            try {
+                BordersSavedData.writeAtomically(path, bytes);
+            } catch (IOException e) {
+                BordersMod.LOGGER.error("[Borders] Failed to save inventory baseline for {}", uuid, e);
+            } finally {
+                // Only if no newer write was queued meanwhile
+                UNFLUSHED.remove(uuid, bytes);
+            }
+        }, Util.ioPool());
+    }
+
+    // ------------------------------------------------------------------------
+    // Encoding
+    // ------------------------------------------------------------------------
+
+    private static byte[] encode(Map<Item, Integer> baseline) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + baseline.size() * 24);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(VERSION);
+        out.writeInt(baseline.size());
+        for (Map.Entry<Item, Integer> entry : baseline.entrySet()) {
+            out.writeUTF(ItemIdTable.idOf(entry.getKey()));
+            out.writeInt(entry.getValue());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<Item, Integer> decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        int version = in.readInt();
+        if (version > VERSION) {
+            throw new IOException("Inventory baseline version " + version + " is newer than supported");
+        }
+
+        // Each entry is at least a UTF length (2) and an amount (4)
+        int count = in.readInt();
+        if (count < 0 || count > (bytes.length - 8) / 6) {
+            throw new IOException("Inventory baseline entry count " + count + " does not fit the file");
+        }
+        Map<Item, Integer> baseline = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            String id = in.readUTF();
+            int amount = in.readInt();
+
+            // Items removed since the baseline was written are simply dropped
+            Item item = ItemIdTable.get(id);
+            if (item != null) {
+                baseline.put(item, amount);
+            }
+        }
+        return baseline;
+    }
+}
@@ -0,0 +1,666 @@
+package com.borders.journal;
+
+import com.borders.BordersMod;
+import com.borders.history.BorderChangeSource;
+import com.borders.history.BorderHistory;
+import com.borders.state.BordersSavedData;
+import com.borders.state.BordersWorldData;
+import com.borders.state.DimensionBorderSettings;
+import com.borders.state.GameState;
+import com.borders.state.ItemIdTable;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.Item;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal for changes made between snapshots.
+ *
+ * Snapshots (BordersWorldData) are only written when the world saves; this
+ * journal (<world>/borders/borders_journal.bin) covers the gap. Every discovery, score increment, border change,
+ * config, shape or dimension setting change, border history event, reset and rollback is appended as a small
+ * binary record the moment it happens. Records are buffered during the tick and written + fsynced
+ * once at the end of the tick (group commit), so a busy tick still costs a
+ * single write and a single fsync.
+ *
+ * Record framing:
+ *   int length | int crc32(payload) | payload
+ *   payload = byte type | long seq | type-specific fields
+ *
+ * Each snapshot stores the seq of the last record it already contains
+ * (BordersSavedData.journalSeq). At startup, records with a higher seq are
+ * replayed on top of the loaded snapshot before it is applied to GameState.
+ * A torn or corrupt tail (crash mid-write) ends the replay and is cut off.
+ *
+ * Once the journal passes COMPACT_THRESHOLD_BYTES it is rotated to
+ * borders_journal.bin.old and a fresh snapshot is written; the rotated file
+ * is deleted once that snapshot is on disk (see PersistenceManager.compact).
+ */
+public class JournalManager {
+
+    /** Journal size at which a compaction (new snapshot) is started. */
+    private static final long COMPACT_THRESHOLD_BYTES = 256 * 1024;
+
+    private static final String FILE_NAME = "borders_journal.bin";
+    private static final String ROTATED_FILE_NAME = FILE_NAME + ".old";
+
+    // Record types (stored on disk: only ever append new values)
+    private static final byte DISCOVERY = 1;
+    private static final byte SCORE = 2;  // name-keyed, replayed for old journals only
+    private static final byte BORDER = 3;
+    private static final byte CONFIG = 4;
+    private static final byte RESET = 5;
+    private static final byte PROFILE = 6;
+    private static final byte PLAYER_SCORE = 7;
+    private static final byte SHAPE = 8;
+    private static final byte DIMENSIONS = 9;
+    private static final byte HISTORY = 10;
+    private static final byte HISTORY_UNDO = 11;
+    private static final byte HISTORY_CLEAR = 12;
+
+    private static FileChannel channel = null;
+
+    /** Records appended this tick, written by commit(). */
+    private static final ByteArrayOutputStream PENDING = new ByteArrayOutputStream();
+
+    /** Seq of the most recently appended record. */
+    private static long lastSeq = 0L;
+
+    /** Profile the journal's last records belong to (after replay). */
+    private static String journalProfile = null;
+
+    /** Profile of the snapshot being replayed into. */
+    private static String activeProfile = null;
+
+    /** <world>/borders/ of the running server; set by replayInto. */
+    private static Path directory = null;
+
+    /** Player names whose scores a replayed RESET dropped (see namesClearedByReplay). */
+    private static final Set<String> CLEARED_NAMES = new HashSet<>();
+
+    /** Border history being replayed into; created on the first history record. */
+    private static BorderHistory replayHistory = null;
+
+    private static Path getPath() {
+        return directory.resolve(FILE_NAME);
+    }
+
+    private static Path getRotatedPath() {
+        return directory.resolve(ROTATED_FILE_NAME);
+    }
+
+    // ------------------------------------------------------------------------
+    // Startup / shutdown
+    // ------------------------------------------------------------------------
+
+    /**
+     * Moves a journal written next to the old global save (config folder)
+     * into this world, so it is replayed on top of the migrated snapshot.
+     * Called once, when the world imports the global save.
+     */
+    public static void migrateLegacy(MinecraftServer server) {
+        Path configDir = FabricLoader.getInstance().getConfigDir();
+        Path worldDir = BordersWorldData.getDirectory(server);
+
+        for (String name : new String[] { FILE_NAME, ROTATED_FILE_NAME }) {
+            Path legacy = configDir.resolve(name);
+            if (!Files.exists(legacy)) {
+                continue;
+            }
+            try {
+                Files.createDirectories(worldDir);
+                Files.move(legacy, worldDir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                BordersMod.LOGGER.error("[Borders] Failed to move {} into the world folder", name, e);
+            }
+        }
+    }
+
+    /**
+     * Replays every journaled change newer than the snapshot into it
+     * (the rotated journal first, then the current one).
+     *
+     * Records written while another profile was active (a crash during
+     * /borders profile switch, before the switched state was saved) are
+     * skipped: replay only applies records while the last PROFILE marker
+     * names the snapshot's profile.
+     *
+     * @param snapshot Loaded snapshot, or a default one if there was no save file
+     * @param profile  Profile the snapshot belongs to
+     * @return how many records were applied, and whether one was a reset
+     *         (scoreboard must be cleared)
+     */
+    public static ReplayResult replayInto(MinecraftServer server, BordersSavedData snapshot, String profile) {
+        directory = BordersWorldData.getDirectory(server);
+        lastSeq = snapshot.journalSeq;
+        activeProfile = profile;
+        journalProfile = profile;
+
+        replayHistory = null;
+        CLEARED_NAMES.clear();
+
+        ReplayResult rotated = replayFile(getRotatedPath(), snapshot);
+        ReplayResult current = replayFile(getPath(), snapshot);
+
+        if (replayHistory != null) {
+            snapshot.borderHistory = replayHistory.toSnapshot();
+            replayHistory = null;
+        }
+
+        int applied = rotated.applied() + current.applied();
+        if (applied > 0) {
+            BordersMod.LOGGER.info("[Borders] Replayed {} journal record(s) on top of the saved state.", applied);
+        }
+        return new ReplayResult(applied, rotated.sawReset() || current.sawReset());
+    }
+
+    /**
+     * Player names whose scores were dropped by a RESET during the last
+     * replayInto. The world's scoreboard still shows them (it was saved
+     * before the reset), so ScoreboardManager removes them from its mirror.
+     */
+    public static Set<String> namesClearedByReplay() {
+        return CLEARED_NAMES;
+    }
+
+    /**
+     * Opens the journal for appending, cutting off any corrupt tail found
+     * during replay. Called from SERVER_STARTED after replayInto.
+     */
+    public static void open() {
+        Path path = getPath();
+        try {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            long validLength = validLength(path);
+            if (validLength < channel.size()) {
+                BordersMod.LOGGER.warn("[Borders] Truncating {} byte(s) of torn journal tail.",
+                        channel.size() - validLength);
+                channel.truncate(validLength);
+            }
+            channel.position(validLength);
+
+            // Replay ended inside another profile's records: switch back explicitly
+            if (journalProfile != null && !journalProfile.equals(activeProfile)) {
+                logProfile(activeProfile);
+            }
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Could not open the Borders journal; changes since the last save may be lost on a crash.", e);
+            channel = null;
+        }
+    }
+
+    /** Writes pending records and closes the journal. Called from SERVER_STOPPING. */
+    public static void close() {
+        commit();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                BordersMod.LOGGER.error("[Borders] Failed to close the Borders journal", e);
+            }
+            channel = null;
+        }
+    }
+
+    /** Seq of the most recently appended record (stored in snapshots). */
+    public static long lastSeq() {
+        return lastSeq;
+    }
+
+    // ------------------------------------------------------------------------
+    // Appending (server thread)
+    // ------------------------------------------------------------------------
+
+    /** A newly obtained item; {@code ignored} = consumed one of the ignored discoveries. */
+    public static void logDiscovery(String itemId, boolean ignored) {
+        append(DISCOVERY, out -> {
+            out.writeUTF(itemId);
+            out.writeBoolean(ignored);
+        });
+    }
+
+    /** A discovery score change for a player (name kept for the name cache). */
+    public static void logScore(UUID player, String playerName, int delta) {
+        append(PLAYER_SCORE, out -> {
+            out.writeLong(player.getMostSignificantBits());
+            out.writeLong(player.getLeastSignificantBits());
+            out.writeUTF(playerName);
+            out.writeInt(delta);
+        });
+    }
+
+    /** New border geometry (size + center), after any change. */
+    public static void logBorder(GameState state) {
+        append(BORDER, out -> {
+            out.writeBoolean(state.BORDER_INITIALIZED);
+            out.writeDouble(state.currentBorderSize);
+            out.writeDouble(state.borderCenterX);
+            out.writeDouble(state.borderCenterZ);
+        });
+    }
+
+    /** Full set of scalar config values and game flags, after any change. */
+    public static void logConfig(GameState state) {
+        append(CONFIG, out -> {
+            out.writeBoolean(state.gameActive);
+            out.writeBoolean(state.failsafeEnabled);
+            out.writeLong(state.borderFailsafeDelayTicks);
+            out.writeInt(state.discoveryGrowthBlocksPerSide);
+            out.writeBoolean(state.deathShrinkEnabled);
+            out.writeInt(state.deathShrinkBlocksPerSide);
+            out.writeInt(state.deathWindowTicks);
+            out.writeInt(state.borderWarningDistance);
+            out.writeInt(state.ignoredDiscoveries);
+            out.writeInt(state.checkpointBudgetMb);
+        });
+    }
+
+    /** Border shape and polygon vertices, after /borders shape. */
+    public static void logShape(GameState state) {
+        append(SHAPE, out -> {
+            out.writeUTF(state.borderShape);
+            double[] vertices = state.polygonVertices != null ? state.polygonVertices : new double[0];
+            out.writeInt(vertices.length);
+            for (double value : vertices) {
+                out.writeDouble(value);
+            }
+        });
+    }
+
+    /** Full set of per-dimension border settings, after /borders dimension. */
+    public static void logDimensions(GameState state) {
+        append(DIMENSIONS, out -> {
+            out.writeInt(state.DIMENSION_SETTINGS.size());
+            for (Map.Entry<String, DimensionBorderSettings> entry : state.DIMENSION_SETTINGS.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue().scale);
+                out.writeDouble(entry.getValue().offsetX);
+                out.writeDouble(entry.getValue().offsetZ);
+            }
+        });
+    }
+
+    /** An event recorded in GameState.BORDER_HISTORY (see BorderHistory.record). */
+    public static void logHistory(long tick, double delta, double size, BorderChangeSource source, String playerName) {
+        append(HISTORY, out -> {
+            out.writeLong(tick);
+            out.writeDouble(delta);
+            out.writeDouble(size);
+            out.writeByte(source.ordinal());
+            out.writeUTF(playerName != null ? playerName : "");
+        });
+    }
+
+    /** The newest border history event was removed by /borders undo. */
+    public static void logHistoryUndo() {
+        append(HISTORY_UNDO, out -> {});
+    }
+
+    /** Items and scores were cleared by /borders reset. */
+    public static void logReset() {
+        append(RESET, out -> {});
+    }
+
+    /**
+     * Replaces everything journaled so far with the current state: a RESET,
+     * then every discovered item, score, the border, the config, the shape,
+     * the dimension settings and the border history. Used after /borders
+     * rollback and import, so a crash before the next snapshot replays into
+     * the restored state instead of the one it replaced.
+     */
+    public static void logRestore(GameState state) {
+        logReset();
+
+        for (Item item : state.OBTAINED_ITEMS) {
+            logDiscovery(ItemIdTable.idOf(item), false);
+        }
+
+        Map<UUID, Integer> scores = new HashMap<>();
+        Map<UUID, String> names = new HashMap<>();
+        Map<String, Integer> unclaimed = new HashMap<>();
+        state.DISCOVERY_SCORES.copyTo(scores, names, unclaimed);
+        for (Map.Entry<UUID, Integer> entry : scores.entrySet()) {
+            logScore(entry.getKey(), names.getOrDefault(entry.getKey(), ""), entry.getValue());
+        }
+        for (Map.Entry<String, Integer> entry : unclaimed.entrySet()) {
+            append(SCORE, out -> {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            });
+        }
+
+        logBorder(state);
+        logConfig(state);
+        logShape(state);
+        logDimensions(state);
+
+        append(HISTORY_CLEAR, out -> {});
+        BorderHistory history = state.BORDER_HISTORY;
+        for (int age = history.size() - 1; age >= 0; age--) {
+            BorderChangeSource source = history.source(age);
+            if (source != null) {
+                logHistory(history.tick(age), history.delta(age), history.sizeAfter(age),
+                        source, history.playerName(age));
+            }
+        }
+    }
+
+    /** Records after this one belong to profile {@code name}. */
+    public static void logProfile(String name) {
+        append(PROFILE, out -> out.writeUTF(name));
+    }
+
+    /**
+     * Writes and fsyncs every record appended this tick (group commit).
+     * Called once at the end of each server tick.
+     *
+     * @return true if the journal has grown past the compaction threshold
+     */
+    public static boolean commit() {
+        if (channel == null || PENDING.size() == 0) {
+            return false;
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(PENDING.toByteArray());
+            PENDING.reset();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            return channel.size() > COMPACT_THRESHOLD_BYTES;
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Failed to write the Borders journal", e);
+            return false;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Compaction
+    // ------------------------------------------------------------------------
+
+    /**
+     * Moves the current journal aside and starts a fresh one.
+     * The caller must then write a snapshot and call deleteRotated once it is on disk.
+     *
+     * @return false if a previous compaction is still in progress (nothing rotated)
+     */
+    public static boolean rotate() {
+        if (channel == null || hasRotated()) {
+            return false;
+        }
+
+        commit();
+        try {
+            channel.close();
+            Files.move(getPath(), getRotatedPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Failed to rotate the Borders journal", e);
+        }
+        open();
+        return true;
+    }
+
+    /** Whether a rotated journal is waiting for its snapshot (e.g. after a crash mid-compaction). */
+    public static boolean hasRotated() {
+        return Files.exists(getRotatedPath());
+    }
+
+    /** Deletes the rotated journal. Safe to call from the IO thread writing the snapshot. */
+    public static void deleteRotated() {
+        try {
+            Files.deleteIfExists(getRotatedPath());
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Failed to delete the rotated Borders journal", e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Encoding
+    // ------------------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static void append(byte type, RecordWriter fields) {
+        if (channel == null) {
+            // Not loaded yet (or journal unavailable): the snapshot has to do
+            return;
+        }
+
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeByte(type);
+            payload.writeLong(++lastSeq);
+            fields.write(payload);
+            payload.flush();
+
+            byte[] bytes = payloadBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+
+            DataOutputStream frame = new DataOutputStream(PENDING);
+            frame.writeInt(bytes.length);
+            frame.writeInt((int) crc.getValue());
+            frame.write(bytes);
+            frame.flush();
+        } catch (IOException e) {
+            // ByteArrayOutputStream doesn't throw; keep the compiler happy
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Decoding / replay
+    // ------------------------------------------------------------------------
+
+    /** Outcome of a replay: records applied on top of the snapshot, and whether one was a RESET. */
+    public record ReplayResult(int applied, boolean sawReset) {}
+
+    private static ReplayResult replayFile(Path path, BordersSavedData snapshot) {
+        if (!Files.exists(path)) {
+            return new ReplayResult(0, false);
+        }
+
+        int applied = 0;
+        boolean sawReset = false;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] payload;
+            while ((payload = readRecord(in)) != null) {
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                byte type = record.readByte();
+                long seq = record.readLong();
+
+                if (seq <= snapshot.journalSeq) {
+                    // Already contained in the snapshot
+                    continue;
+                }
+                lastSeq = Math.max(lastSeq, seq);
+
+                if (type == PROFILE) {
+                    journalProfile = record.readUTF();
+                    continue;
+                }
+                if (!activeProfile.equals(journalProfile)) {
+                    // Belongs to a profile switched to after this snapshot
+                    continue;
+                }
+
+                sawReset |= apply(type, record, snapshot);
+                snapshot.journalSeq = seq;
+                applied++;
+            }
+        } catch (IOException e) {
+            BordersMod.LOGGER.error("[Borders] Failed to replay {}", path.getFileName(), e);
+        }
+
+        return new ReplayResult(applied, sawReset);
+    }
+
+    /** Applies one record to the snapshot. Returns true for RESET. */
+    private static boolean apply(byte type, DataInputStream in, BordersSavedData snapshot) throws IOException {
+        switch (type) {
+            case DISCOVERY -> {
+                snapshot.obtainedItemIds.add(in.readUTF());
+                if (in.readBoolean() && snapshot.ignoredDiscoveries > 0) {
+                    snapshot.ignoredDiscoveries--;
+                }
+            }
+            case SCORE -> snapshot.playerScores.merge(in.readUTF(), in.readInt(), Integer::sum);
+            case PLAYER_SCORE -> {
+                UUID player = new UUID(in.readLong(), in.readLong());
+                String name = in.readUTF();
+                if (!name.isEmpty()) {
+                    // Empty: restored score of a player whose name was never seen
+                    snapshot.playerNames.put(player, name);
+                }
+                snapshot.scores.merge(player, in.readInt(), Integer::sum);
+            }
+            case BORDER -> {
+                snapshot.borderInitialized = in.readBoolean();
+                snapshot.currentBorderSize = in.readDouble();
+                snapshot.borderCenterX = in.readDouble();
+                snapshot.borderCenterZ = in.readDouble();
+            }
+            case CONFIG -> {
+                snapshot.gameActive = in.readBoolean();
+                snapshot.failsafeEnabled = in.readBoolean();
+                snapshot.borderFailsafeDelayTicks = in.readLong();
+                snapshot.discoveryGrowthBlocksPerSide = in.readInt();
+                snapshot.deathShrinkEnabled = in.readBoolean();
+                snapshot.deathShrinkBlocksPerSide = in.readInt();
+                snapshot.deathWindowTicks = in.readInt();
+                snapshot.borderWarningDistance = in.readInt();
+                snapshot.ignoredDiscoveries = in.readInt();
+                if (in.available() >= 4) {
+                    // Added later; older CONFIG records end here
+                    snapshot.checkpointBudgetMb = in.readInt();
+                }
+            }
+            case SHAPE -> {
+                snapshot.borderShape = in.readUTF();
+                double[] vertices = new double[readCount(in, 8)];
+                for (int i = 0; i < vertices.length; i++) {
+                    vertices[i] = in.readDouble();
+                }
+                snapshot.polygonVertices = vertices.length > 0 ? vertices : null;
+            }
+            case DIMENSIONS -> {
+                int count = readCount(in, 2 + 3 * 8);
+                Map<String, DimensionBorderSettings> settings = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    String dimension = in.readUTF();
+                    DimensionBorderSettings entry = new DimensionBorderSettings();
+                    entry.scale = in.readDouble();
+                    entry.offsetX = in.readDouble();
+                    entry.offsetZ = in.readDouble();
+                    settings.put(dimension, entry);
+                }
+                snapshot.dimensionSettings = settings;
+            }
+            case HISTORY -> {
+                long tick = in.readLong();
+                double delta = in.readDouble();
+                double size = in.readDouble();
+                BorderChangeSource source = BorderChangeSource.fromOrdinal(in.readByte());
+                String name = in.readUTF();
+                if (source != null) {
+                    historyFor(snapshot).record(tick, delta, size, source, name.isEmpty() ? null : name);
+                }
+            }
+            case HISTORY_UNDO -> historyFor(snapshot).removeNewest();
+            case HISTORY_CLEAR -> historyFor(snapshot).clear();
+            case RESET -> {
+                CLEARED_NAMES.addAll(snapshot.playerNames.values());
+                CLEARED_NAMES.addAll(snapshot.playerScores.keySet());
+                snapshot.obtainedItemIds.clear();
+                snapshot.scores.clear();
+                snapshot.playerNames.clear();
+                snapshot.playerScores.clear();
+                return true;
+            }
+            default -> BordersMod.LOGGER.warn("[Borders] Skipping unknown journal record type {}.", type);
+        }
+        return false;
+    }
+
+    /** The history replayed records go to, seeded from the snapshot on first use. */
+    private static BorderHistory historyFor(BordersSavedData snapshot) {
+        if (replayHistory == null) {
+            replayHistory = new BorderHistory(GameState.BORDER_HISTORY_CAPACITY);
+            replayHistory.load(snapshot.borderHistory);
+        }
+        return replayHistory;
+    }
+
+    /** Reads an element count that must fit the rest of the record. */
+    private static int readCount(DataInputStream in, int minBytesPerElement) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available() / minBytesPerElement) {
+            throw new IOException("Journal record count " + count + " does not fit the record");
+        }
+        return count;
+    }
+
+    /**
+     * Reads one framed record payload.
+     *
+     * @return the payload, or null at end of file or at a torn / corrupt record
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int expectedCrc = in.readInt();
+            if (length <= 0 || length > 1 << 20) {
+                return null;
+            }
+
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == expectedCrc ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /** Byte length of the intact record prefix of a journal file. */
+    private static long validLength(Path path) throws IOException {
+        long length = 0L;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] payload;
+            while ((payload = readRecord(in)) != null) {
+                length += 8L + payload.length;
+            }
+        }
+        return length;
+    }
+}
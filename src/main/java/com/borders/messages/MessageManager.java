@@ -3,11 +3,14 @@ package com.borders.messages;
 import com.borders.BordersMod;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.TextColor;
 import com.borders.state.GameState;
 
 import net.minecraft.network.chat.ClickEvent;
 
+import java.util.List;
+
 /**
  * Handles all chat message construction and formatting for the Borders mod.
  *
@@ -246,13 +249,14 @@ public class MessageManager {
     // ---------------------------------------------------------------------
 
     /**
-     * Builds the multi-line message shown when a player dies and causes
-     * the world border to shrink.
+     * Builds the multi-line message shown when one or more players die
+     * (within the death window) and cause the world border to shrink.
      *
-     * @param playerName Name of the player who died
+     * @param playerNames       Names of the players who died, in death order
+     * @param totalBlocksPerSide Combined shrink per side for all deaths
      * @return An array of Components to broadcast line-by-line.
      */
-    public static Component[] buildDeathShrinkMessages(String playerName) {
+    public static Component[] buildDeathShrinkMessages(List<String> playerNames, int totalBlocksPerSide) {
         String suffix = DEATH_SHRINK_MESSAGES[
                 BordersMod.RANDOM.nextInt(DEATH_SHRINK_MESSAGES.length)
                 ];
@@ -263,18 +267,32 @@ public class MessageManager {
                         .withBold(true)
                 );
 
-        Component line2 = Component.literal("")
-                .append(
-                        Component.literal(playerName)
-                                .withStyle(style -> style.withColor(TextColor.fromRgb(0x55FFFF))) // cyan
-                )
-                .append(Component.literal(" "))
+        // "A", "A and B", "A, B and C"
+        MutableComponent line2 = Component.literal("");
+        for (int i = 0; i < playerNames.size(); i++) {
+            if (i > 0) {
+                line2.append(Component.literal(i == playerNames.size() - 1 ? " and " : ", "));
+            }
+            line2.append(
+                    Component.literal(playerNames.get(i))
+                            .withStyle(style -> style.withColor(TextColor.fromRgb(0x55FFFF))) // cyan
+            );
+        }
+        line2.append(Component.literal(" "))
                 .append(
                         Component.literal(suffix)
                                 .withStyle(style -> style.withColor(TextColor.fromRgb(0xFFAA00))) // gold-ish
                 );
 
-        return new Component[] { line1, line2 };
+        if (playerNames.size() == 1) {
+            return new Component[] { line1, line2 };
+        }
+
+        Component line3 = Component.literal(playerNames.size() + " deaths at once: border shrunk by "
+                        + totalBlocksPerSide + " blocks per side.")
+                .withStyle(ChatFormatting.GRAY);
+
+        return new Component[] { line1, line2, line3 };
     }
 
     // ---------------------------------------------------------------------
@@ -487,6 +505,11 @@ public class MessageManager {
                 "Set shrink per player death (per side; diameter = x2)."
         );
 
+        Component deathWindowLine = helpLine(
+                "/borders setdeathwindow <ticks>",
+                "Combine deaths within this many ticks into one shrink."
+        );
+
         Component toggleDeathLine = helpLine(
                 "/borders toggledeathshrink",
                 "Enable or disable border shrinking when players die."
@@ -497,6 +520,21 @@ public class MessageManager {
                 "Set inactivity time before automatic border expansion."
         );
 
+        Component warningLine = helpLine(
+                "/borders setwarning <blocks>",
+                "Warn players this close to the edge (0 = off)."
+        );
+
+        Component shapeLine = helpLine(
+                "/borders shape square|circle|regular <n>|polygon <x,z ...>",
+                "Change the border outline (grows with discoveries)."
+        );
+
+        Component dimensionLine = helpLine(
+                "/borders dimension <dim> scale|offset|clear",
+                "Scale or offset one dimension's border (e.g. Nether 0.125)."
+        );
+
         // Manual border control
         Component manualHeader = Component.literal("Manual Border Control")
                 .withStyle(style -> style
@@ -509,6 +547,41 @@ public class MessageManager {
                 "Manually grow border by this many blocks on each side."
         );
 
+        Component exportLine = helpLine(
+                "/borders export json | import json",
+                "Write or load <world>/borders/borders_state.json for hand editing."
+        );
+
+        Component profileLine = helpLine(
+                "/borders profile [switch <name>]",
+                "Show profiles or hot-swap to another (new names start a fresh game)."
+        );
+
+        Component rollbackLine = helpLine(
+                "/borders rollback <minutes>",
+                "Restore items, scores and border from a checkpoint that old."
+        );
+
+        Component checkpointBudgetLine = helpLine(
+                "/borders setcheckpointbudget <mib>",
+                "Disk space kept for rollback checkpoints."
+        );
+
+        Component topLine = helpLine(
+                "/borders top [page]",
+                "Show the discovery ranking, 10 players per page."
+        );
+
+        Component historyLine = helpLine(
+                "/borders history [count]",
+                "List recent border size changes and their causes."
+        );
+
+        Component undoLine = helpLine(
+                "/borders undo",
+                "Revert the most recent border size change."
+        );
+
         Component shrinkLine = helpLine(
                 "/borders shrink <blocksPerSide>",
                 "Manually shrink border by this many blocks on each side."
@@ -524,19 +597,30 @@ public class MessageManager {
                 stopLine,
                 resetLine,
                 infoLine,
+                topLine,
                 reloadLine,
                 blank,
 
                 configHeader,
                 growthLine,
                 deathShrinkLine,
+                deathWindowLine,
                 toggleDeathLine,
                 timerLine,
+                warningLine,
+                dimensionLine,
+                shapeLine,
                 blank,
 
                 manualHeader,
                 growLine,
-                shrinkLine
+                shrinkLine,
+                historyLine,
+                undoLine,
+                exportLine,
+                profileLine,
+                rollbackLine,
+                checkpointBudgetLine
         };
     }
 
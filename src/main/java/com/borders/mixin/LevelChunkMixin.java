@@ -0,0 +1,27 @@
+package com.borders.mixin;
+
+import com.borders.teleport.SafeSpotResolver;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Invalidates SafeSpotResolver's cached safe column whenever a block in the
+ * chunk actually changes (setBlockState returns null when nothing changed).
+ */
+@Mixin(LevelChunk.class)
+public abstract class LevelChunkMixin {
+
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void borders$invalidateSafeSpot(CallbackInfoReturnable<BlockState> cir) {
+        if (cir.getReturnValue() == null) {
+            return;
+        }
+
+        LevelChunk chunk = (LevelChunk) (Object) this;
+        SafeSpotResolver.invalidate(chunk.getLevel(), chunk.getPos());
+    }
+}
@@ -0,0 +1,58 @@
+package com.borders.mixin;
+
+import com.borders.scoreboard.ScoreboardManager;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.ServerScoreboard;
+import net.minecraft.world.scores.DisplaySlot;
+import net.minecraft.world.scores.Objective;
+import net.minecraft.world.scores.Score;
+import net.minecraft.world.scores.ScoreHolder;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Tells ScoreboardManager about scoreboard changes (e.g. /scoreboard
+ * commands or other mods) so its cached sidebar objective and its line
+ * index are only re-validated when something actually touched them.
+ */
+@Mixin(ServerScoreboard.class)
+public abstract class ServerScoreboardMixin {
+
+    @Shadow
+    @Final
+    private MinecraftServer server;
+
+    @Inject(method = "onObjectiveRemoved", at = @At("TAIL"))
+    private void borders$objectiveRemoved(Objective objective, CallbackInfo ci) {
+        ScoreboardManager.onScoreboardChanged(server, objective, null);
+    }
+
+    @Inject(method = "onObjectiveChanged", at = @At("TAIL"))
+    private void borders$objectiveChanged(Objective objective, CallbackInfo ci) {
+        ScoreboardManager.onScoreboardChanged(server, objective, null);
+    }
+
+    @Inject(method = "setDisplayObjective", at = @At("TAIL"))
+    private void borders$displayObjectiveChanged(DisplaySlot slot, Objective objective, CallbackInfo ci) {
+        ScoreboardManager.onDisplaySlotChanged(slot, objective);
+    }
+
+    @Inject(method = "onScoreChanged", at = @At("TAIL"))
+    private void borders$scoreChanged(ScoreHolder holder, Objective objective, Score score, CallbackInfo ci) {
+        ScoreboardManager.onScoreboardChanged(server, objective, holder.getScoreboardName());
+    }
+
+    @Inject(method = "onPlayerScoreRemoved", at = @At("TAIL"))
+    private void borders$scoreRemoved(ScoreHolder holder, Objective objective, CallbackInfo ci) {
+        ScoreboardManager.onScoreboardChanged(server, objective, holder.getScoreboardName());
+    }
+
+    @Inject(method = "onPlayerRemoved", at = @At("TAIL"))
+    private void borders$holderRemoved(ScoreHolder holder, CallbackInfo ci) {
+        ScoreboardManager.onScoreboardChanged(server, null, holder.getScoreboardName());
+    }
+}
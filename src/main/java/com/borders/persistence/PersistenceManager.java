@@ -0,0 +1,115 @@
+package com.borders.persistence;
+
+import com.borders.BordersMod;
+import com.borders.journal.JournalManager;
+import com.borders.state.BordersSavedData;
+import com.borders.state.BordersWorldData;
+import net.minecraft.server.MinecraftServer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persists GameState into the world's BordersWorldData.
+ *
+ * The state is written by the vanilla save pipeline together with chunks
+ * (autosave, /save-all, shutdown); the file IO happens on the vanilla IO
+ * threads. Every code path that changes persisted GameState (discovery,
+ * score, border, config, shape, dimension settings, reset) calls
+ * markDirty; right before a world save the state is encoded only if it was
+ * marked, so an idle world is neither re-encoded nor rewritten.
+ *
+ * Changes between two saves are covered by the JournalManager, which this
+ * class also compacts.
+ */
+public class PersistenceManager {
+
+    /** Whether GameState changed since it was last copied into the SavedData. */
+    private static boolean dirty = false;
+
+    /**
+     * Records that persisted GameState changed. Called at every mutation
+     * site, next to the matching journal record (if any).
+     */
+    public static void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Finishes work left over from the previous run. Called from
+     * SERVER_STARTED, after the saved state and journal have been loaded.
+     *
+     * @param migrated true if the state was just imported from the old global save
+     * @param replayed true if journal records were replayed on top of the snapshot
+     */
+    public static void start(MinecraftServer server, boolean migrated, boolean replayed) {
+        // Otherwise the loaded state is exactly what is on disk
+        if (migrated || replayed) {
+            markDirty();
+        }
+
+        // A crash mid-compaction left a rotated journal: its records were just
+        // replayed into GameState, so one snapshot makes it obsolete
+        boolean rotated = JournalManager.hasRotated();
+
+        if (!migrated && !rotated) {
+            return;
+        }
+
+        saveAsync(server).thenRun(() -> {
+            if (rotated) {
+                JournalManager.deleteRotated();
+            }
+            if (migrated) {
+                // Only now the world owns the state; stop other worlds importing it
+                BordersSavedData.finishLegacyMigration();
+                BordersMod.LOGGER.info("[Borders] Moved the global Borders save into this world.");
+            }
+        });
+    }
+
+    /**
+     * Copies GameState (+ scores) into the world's SavedData if it was
+     * marked dirty since the last copy.
+     * Called from BEFORE_SAVE and SERVER_STOPPING, right before vanilla
+     * writes dirty SavedData.
+     *
+     * @return true if anything changed (data marked dirty)
+     */
+    public static boolean refresh(MinecraftServer server) {
+        if (!dirty) {
+            return false;
+        }
+        dirty = false;
+
+        byte[] bytes = BordersSavedData.fromGameState(BordersMod.STATE).toBytes();
+        BordersWorldData.get(server).store(BordersMod.STATE.activeProfile, bytes);
+        return true;
+    }
+
+    /**
+     * Copies the SavedData and writes it now instead of at the next world
+     * save, without blocking the server thread. Always encodes the current
+     * state: callers (compaction, profile switch, rollback, import) rely on
+     * the snapshot on disk being current once the future completes.
+     *
+     * @return completes once the state is on disk
+     */
+    public static CompletableFuture<?> saveAsync(MinecraftServer server) {
+        markDirty();
+        refresh(server);
+        return BordersWorldData.scheduleSave(server);
+    }
+
+    /**
+     * Compacts the journal: rotates it, then writes a snapshot containing
+     * every rotated record and deletes the rotated file once that is on disk.
+     * Called when JournalManager.commit reports the size threshold.
+     */
+    public static void compact(MinecraftServer server) {
+        if (!JournalManager.rotate()) {
+            return;
+        }
+
+        saveAsync(server).thenRun(JournalManager::deleteRotated);
+    }
+}
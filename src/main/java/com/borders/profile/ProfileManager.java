@@ -0,0 +1,233 @@
+package com.borders.profile;
+
+import com.borders.BordersMod;
+import com.borders.border.BorderManager;
+import com.borders.checkpoint.CheckpointManager;
+import com.borders.containment.ContainmentManager;
+import com.borders.death.DeathManager;
+import com.borders.failsafe.FailsafeManager;
+import com.borders.journal.JournalManager;
+import com.borders.persistence.PersistenceManager;
+import com.borders.scoreboard.ScoreboardManager;
+import com.borders.shape.ShapeManager;
+import com.borders.state.BordersBinaryFormat;
+import com.borders.state.BordersSavedData;
+import com.borders.state.BordersWorldData;
+import com.borders.state.GameState;
+import com.borders.teleport.TeleportManager;
+import com.borders.warning.WarningManager;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Named game profiles (seasons, event games), each with its own state.
+ *
+ * Only the active profile lives in memory (GameState) and in the world's
+ * BordersWorldData. Every other profile is a binary snapshot in
+ * <world>/borders/profiles/<name>.bin.
+ *
+ * /borders profile switch <name>:
+ *  1. Load the target profile (a missing file starts a fresh game).
+ *  2. Snapshot the current profile and write it to its file off-thread.
+ *  3. Journal a PROFILE marker and apply the target state to GameState,
+ *     border, shape, scoreboard and timers.
+ *  4. Once the old profile is on disk, save the world data, which makes
+ *     the switch durable.
+ * A crash before step 4 comes back up on the old profile (the journal
+ * skips the records written after the marker).
+ *
+ * Profile writes run in order on the vanilla IO pool, like
+ * CheckpointManager's, so two writes of one profile never overlap. Until
+ * a write has landed its bytes are kept in memory, and loading that
+ * profile (a quick switch back) reads them instead of the stale file.
+ */
+public class ProfileManager {
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-z0-9_-]{1,32}");
+
+    /**
+     * Bytes queued for writing but not on disk yet, by profile name.
+     * Kept after a failed write, so the profile can still be switched to.
+     */
+    private static final Map<String, byte[]> UNFLUSHED = new ConcurrentHashMap<>();
+
+    /** Tail of the ordered IO chain. */
+    private static CompletableFuture<Void> pendingIo = CompletableFuture.completedFuture(null);
+
+    private static Path getDirectory(MinecraftServer server) {
+        return BordersWorldData.getDirectory(server).resolve("profiles");
+    }
+
+    private static Path getPath(MinecraftServer server, String name) {
+        return getDirectory(server).resolve(name + ".bin");
+    }
+
+    /** Profile names are used as file names: lowercase letters, digits, '_' and '-'. */
+    public static boolean isValidName(String name) {
+        return NAME_PATTERN.matcher(name).matches();
+    }
+
+    /** All known profiles (stored ones plus the active one), sorted by name. */
+    public static List<String> listProfiles(MinecraftServer server) {
+        TreeSet<String> names = new TreeSet<>();
+        names.add(BordersMod.STATE.activeProfile);
+        names.addAll(UNFLUSHED.keySet());
+
+        Path directory = getDirectory(server);
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(path -> path.getFileName().toString())
+                        .filter(file -> file.endsWith(".bin"))
+                        .map(file -> file.substring(0, file.length() - ".bin".length()))
+                        .forEach(names::add);
+            } catch (IOException e) {
+                BordersMod.LOGGER.error("[Borders] Failed to list profiles", e);
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Makes {@code name} the active profile without a restart.
+     * The caller checks the name and that no reset is running.
+     *
+     * @return true if the profile existed, false if a fresh one was started
+     * @throws IOException if the target profile's file is unreadable
+     *                     (the current profile stays active)
+     */
+    public static boolean switchTo(MinecraftServer server, String name) throws IOException {
+        GameState state = BordersMod.STATE;
+
+        // Load first, so a broken file leaves the current profile untouched
+        BordersSavedData next = loadProfile(server, name);
+        boolean existed = next != null;
+        if (!existed) {
+            next = new BordersSavedData();
+        }
+
+        // Last checkpoint of the outgoing profile, then flush it off-thread
+        CheckpointManager.checkpoint(server);
+        String previous = state.activeProfile;
+        byte[] outgoing = BordersSavedData.fromGameState(state).toBytes();
+        Path outgoingPath = getPath(server, previous);
+        UNFLUSHED.put(previous, outgoing);
+        CompletableFuture<Void> flush = pendingIo.thenRunAsync(() -> {
+            try {
+                BordersSavedData.writeAtomically(outgoingPath, outgoing);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Only if no newer write was queued meanwhile
+            UNFLUSHED.remove(previous, outgoing);
+        }, Util.ioPool());
+        // A failed write must not stop the ones queued after it
+        pendingIo = flush.exceptionally(error -> null);
+
+        // Everything journaled from here on belongs to the new profile
+        JournalManager.logProfile(name);
+        state.activeProfile = name;
+        applySnapshot(server, next);
+        CheckpointManager.reload(server);
+
+        // A fresh game's failsafe countdown starts now
+        state.lastDiscoveryTick = state.globalTick;
+        FailsafeManager.reschedule(server);
+
+        flush.whenComplete((ignored, error) -> server.execute(() -> {
+            if (error != null) {
+                BordersMod.LOGGER.error("[Borders] Failed to save profile '{}'", previous, error);
+                return;
+            }
+            PersistenceManager.saveAsync(server);
+        }));
+
+        BordersMod.LOGGER.info("[Borders] Switched profile '{}' -> '{}'{}.",
+                previous, name, existed ? "" : " (new)");
+        return existed;
+    }
+
+    /**
+     * Replaces the live state with {@code data}: GameState, scoreboard,
+     * shape, borders in every dimension, containment and the failsafe.
+     * Buffered deaths and queued teleports of the old state are dropped.
+     * Used by profile switches and /borders import json.
+     */
+    public static void applySnapshot(MinecraftServer server, BordersSavedData data) {
+        GameState state = BordersMod.STATE;
+
+        // Nothing pending from the outgoing game may act on this one
+        DeathManager.discardPending();
+        TeleportManager.clear();
+
+        // Scores of the outgoing state must not leak into this one
+        ScoreboardManager.resetDiscoveryScores(server);
+        data.applyToGameState(state, server);
+
+        try {
+            ShapeManager.reloadShape();
+        } catch (IllegalArgumentException e) {
+            BordersMod.LOGGER.warn("[Borders] Loaded polygon border is invalid ({}), falling back to square.", e.getMessage());
+            state.borderShape = "square";
+            ShapeManager.reloadShape();
+        }
+
+        if (state.BORDER_INITIALIZED) {
+            BorderManager.applyBorderToAllDimensions(server);
+        } else {
+            // A fresh game starts around the first online player, like a first join
+            List<ServerPlayer> players = server.getPlayerList().getPlayers();
+            if (!players.isEmpty()) {
+                ServerPlayer first = players.get(0);
+                BorderManager.initializeBorderOnFirstJoin((ServerLevel) first.level(), first);
+            }
+        }
+
+        ContainmentManager.invalidateAll(server);
+        WarningManager.invalidateAll(server);
+        FailsafeManager.reschedule(server);
+        ScoreboardManager.updateBorderSizeLine(server);
+        PersistenceManager.markDirty();
+    }
+
+    /** Waits for queued writes and drops cached state. Called from SERVER_STOPPED. */
+    public static void clear() {
+        pendingIo.join();
+        pendingIo = CompletableFuture.completedFuture(null);
+        UNFLUSHED.clear();
+    }
+
+    /**
+     * Reads a stored profile, or null if it has no file yet. A profile
+     * whose write is still queued is read from memory.
+     */
+    private static BordersSavedData loadProfile(MinecraftServer server, String name) throws IOException {
+        byte[] unflushed = UNFLUSHED.get(name);
+        if (unflushed != null) {
+            return BordersBinaryFormat.decode(ByteBuffer.wrap(unflushed));
+        }
+
+        Path path = getPath(server, name);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        return BordersBinaryFormat.decode(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+}
@@ -0,0 +1,206 @@
+package com.borders.reset;
+
+import com.borders.BordersMod;
+import com.borders.border.BorderManager;
+import com.borders.chunk.ChunkReleaseManager;
+import com.borders.containment.ContainmentManager;
+import com.borders.failsafe.FailsafeManager;
+import com.borders.inventory.InventoryBaselines;
+import com.borders.journal.JournalManager;
+import com.borders.persistence.PersistenceManager;
+import com.borders.scoreboard.ScoreboardManager;
+import com.borders.state.GameState;
+import com.borders.warning.WarningManager;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs /borders reset as a staged job spread over several ticks,
+ * instead of clearing and teleporting every player in one command tick.
+ *
+ * Phases:
+ *  1. FREEZE   – discovery detection is frozen (GameState.discoveryFrozen)
+ *                and the spawn area starts preloading.
+ *  2. PRELOAD  – wait a few ticks so the spawn chunks are loaded before
+ *                the teleport wave.
+ *  3. PLAYERS  – clear inventories and queue teleports, PLAYERS_PER_TICK
+ *                players per tick.
+ *  4. BORDER   – reset border, scoreboard and game state.
+ *  5. UNFREEZE – discovery detection resumes.
+ *
+ * While frozen, BordersMod skips inventory scanning entirely, and the
+ * failsafe and death shrink are paused, so nothing can be counted mid-reset.
+ * Progress is reported to the operator who started the reset.
+ */
+public class ResetManager {
+
+    /** Players processed per tick during the PLAYERS phase. */
+    private static final int PLAYERS_PER_TICK = 8;
+
+    /** Ticks between starting the spawn preload and the first teleport batch. */
+    private static final int PRELOAD_LEAD_TICKS = 5;
+
+    /** Chunk radius around spawn that is preloaded before teleporting. */
+    private static final int PRELOAD_RADIUS = 2;
+
+    private enum Phase { FREEZE, PRELOAD, PLAYERS, BORDER, UNFREEZE }
+
+    /** The running reset, or null when idle. */
+    private static ResetJob job = null;
+
+    private static final class ResetJob {
+        final CommandSourceStack source;
+        final List<UUID> players;
+        Phase phase = Phase.FREEZE;
+        int nextPlayer = 0;
+        int waitTicks = 0;
+        int lastReportedQuarter = 0;
+
+        ResetJob(CommandSourceStack source, List<UUID> players) {
+            this.source = source;
+            this.players = players;
+        }
+    }
+
+    /**
+     * Starts a staged reset.
+     *
+     * @return false if a reset is already running
+     */
+    public static boolean start(MinecraftServer server, CommandSourceStack source) {
+        if (job != null) {
+            return false;
+        }
+
+        List<UUID> players = new ArrayList<>();
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            players.add(player.getUUID());
+        }
+
+        job = new ResetJob(source, players);
+        return true;
+    }
+
+    /**
+     * Called once per server tick by BordersMod.
+     * Advances the running job by one step.
+     */
+    public static void tick(MinecraftServer server) {
+        if (job == null) {
+            return;
+        }
+
+        GameState state = BordersMod.STATE;
+
+        switch (job.phase) {
+            case FREEZE -> {
+                state.discoveryFrozen = true;
+                BorderManager.preloadSpawnArea(server, PRELOAD_RADIUS);
+
+                report("Reset started: discovery frozen, "
+                        + job.players.size() + " player(s) to process.");
+
+                job.waitTicks = PRELOAD_LEAD_TICKS;
+                job.phase = Phase.PRELOAD;
+            }
+
+            case PRELOAD -> {
+                if (--job.waitTicks <= 0) {
+                    job.phase = Phase.PLAYERS;
+                }
+            }
+
+            case PLAYERS -> {
+                processPlayerBatch(server);
+
+                if (job.nextPlayer >= job.players.size()) {
+                    job.phase = Phase.BORDER;
+                }
+            }
+
+            case BORDER -> {
+                resetBorderAndState(server);
+                report("Border, scoreboard and items reset.");
+                job.phase = Phase.UNFREEZE;
+            }
+
+            case UNFREEZE -> {
+                state.discoveryFrozen = false;
+                FailsafeManager.reschedule(server);
+                report("Game reset: border, items, and inventories cleared.");
+                job = null;
+            }
+        }
+    }
+
+    private static void processPlayerBatch(MinecraftServer server) {
+        int end = Math.min(job.nextPlayer + PLAYERS_PER_TICK, job.players.size());
+
+        for (int i = job.nextPlayer; i < end; i++) {
+            ServerPlayer player = server.getPlayerList().getPlayer(job.players.get(i));
+            if (player == null) {
+                // Left during the reset
+                continue;
+            }
+
+            player.getInventory().clearContent();
+
+            // Queued; runs once the (preloaded) spawn chunk is ready
+            BorderManager.teleportToSpawn(player);
+        }
+
+        job.nextPlayer = end;
+
+        // Report every 25% so big servers don't flood the operator's chat
+        int total = job.players.size();
+        int quarter = total == 0 ? 4 : (end * 4) / total;
+        if (quarter > job.lastReportedQuarter) {
+            job.lastReportedQuarter = quarter;
+            report("Players processed: " + end + "/" + total + ".");
+        }
+    }
+
+    private static void resetBorderAndState(MinecraftServer server) {
+        GameState state = BordersMod.STATE;
+
+        // Reset scoreboard
+        ScoreboardManager.resetDiscoveryScores(server);
+
+        // Reset border (re-applied to every dimension inside)
+        ServerLevel overworld = server.getLevel(Level.OVERWORLD);
+        if (overworld != null) {
+            BorderManager.resetBorder(overworld);
+            ChunkReleaseManager.releaseChunksOutsideBorder(server);
+            ContainmentManager.invalidateAll(server);
+            WarningManager.invalidateAll(server);
+        }
+
+        // Reset game state
+        state.OBTAINED_ITEMS.clear();
+        state.LAST_INVENTORIES.clear();
+        InventoryBaselines.deleteAll(server);
+        state.globalTick = 0L;
+        state.lastDiscoveryTick = 0L;
+        state.gameActive = false;
+        state.failsafeEnabled = false;
+        FailsafeManager.reschedule(server);
+
+        // Items and scores are gone; the border was journaled by resetBorder
+        JournalManager.logReset();
+        JournalManager.logConfig(state);
+        PersistenceManager.markDirty();
+    }
+
+    private static void report(String message) {
+        job.source.sendSystemMessage(Component.literal("[Borders] " + message));
+    }
+}
@@ -0,0 +1,45 @@
+package com.borders.scheduler;
+
+/**
+ * Shared tick scheduler for every timed Borders mechanic.
+ *
+ * Instead of each manager polling "has enough time passed?" every tick,
+ * mechanics register a deadline here and get called back when it is due.
+ * BordersMod advances the wheel once per server tick; idle ticks cost O(1)
+ * no matter how many timers are registered (see TimingWheel).
+ *
+ * The scheduler clock is independent of GameState.globalTick (which
+ * /borders reset zeroes) and is cleared when the server stops.
+ */
+public class SchedulerManager {
+
+    private static final TimingWheel WHEEL = new TimingWheel();
+
+    /**
+     * Called once per server tick by BordersMod.
+     * Runs every timer that is due this tick.
+     */
+    public static void tick() {
+        WHEEL.advance();
+    }
+
+    /** Current scheduler tick (compare with TimingWheel.Timer.deadline()). */
+    public static long now() {
+        return WHEEL.now();
+    }
+
+    /** Runs {@code task} once after {@code delayTicks} (at least one tick). */
+    public static TimingWheel.Timer schedule(long delayTicks, Runnable task) {
+        return WHEEL.schedule(delayTicks, task);
+    }
+
+    /** Runs {@code task} after {@code delayTicks}, then every {@code periodTicks}. */
+    public static TimingWheel.Timer scheduleRepeating(long delayTicks, long periodTicks, Runnable task) {
+        return WHEEL.scheduleRepeating(delayTicks, periodTicks, task);
+    }
+
+    /** Cancels all timers. Called from SERVER_STOPPED. */
+    public static void clear() {
+        WHEEL.clear();
+    }
+}
@@ -0,0 +1,178 @@
+package com.borders.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel keyed by tick.
+ *
+ * Four wheels of 64 slots each cover 64^4 ticks (about 9.7 days at 20 TPS);
+ * anything further out waits in an overflow list. A timer is stored in the
+ * lowest wheel whose current "block" also contains its deadline:
+ *
+ *  - wheel 0: deadline within the current block of 64 ticks, slot = tick
+ *  - wheel 1: within the current block of 64^2 ticks, slot = tick / 64
+ *  - wheel 2, 3: same idea one and two levels up
+ *
+ * Each advance() looks at exactly one wheel-0 slot. Higher wheels are only
+ * touched when the clock crosses their block boundary, at which point that
+ * slot's timers are re-inserted into lower wheels ("cascading"). An idle
+ * tick therefore costs O(1) regardless of how many timers are scheduled.
+ *
+ * Not thread-safe; only used from the server thread.
+ */
+public class TimingWheel {
+
+    private static final int WHEELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /** A scheduled task. Cancelled timers are dropped lazily when their slot is reached. */
+    public static final class Timer {
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private boolean cancelled = false;
+
+        private Timer(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /** Prevents any further runs of this timer. */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Tick (on the wheel's clock) of the next run. */
+        public long deadline() {
+            return deadline;
+        }
+    }
+
+    private final ArrayDeque<Timer>[][] wheels;
+    private final List<Timer> overflow = new ArrayList<>();
+
+    /** Current tick; timers due at this tick have already run. */
+    private long now = 0L;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel() {
+        wheels = new ArrayDeque[WHEELS][SLOTS];
+        for (int w = 0; w < WHEELS; w++) {
+            for (int s = 0; s < SLOTS; s++) {
+                wheels[w][s] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    public long now() {
+        return now;
+    }
+
+    /** Runs {@code task} once, {@code delay} ticks from now (at least 1). */
+    public Timer schedule(long delay, Runnable task) {
+        Timer timer = new Timer(task, now + Math.max(1L, delay), 0L);
+        insert(timer);
+        return timer;
+    }
+
+    /** Runs {@code task} after {@code delay} ticks, then every {@code period} ticks. */
+    public Timer scheduleRepeating(long delay, long period, Runnable task) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        Timer timer = new Timer(task, now + Math.max(1L, delay), period);
+        insert(timer);
+        return timer;
+    }
+
+    /**
+     * Advances the clock by one tick and runs every timer due at the new tick.
+     */
+    public void advance() {
+        now++;
+
+        // Cascade from the top so timers can fall through several wheels at once
+        if ((now & ((1L << (SLOT_BITS * WHEELS)) - 1)) == 0 && !overflow.isEmpty()) {
+            List<Timer> pending = new ArrayList<>(overflow);
+            overflow.clear();
+            for (Timer timer : pending) {
+                insert(timer);
+            }
+        }
+        for (int w = WHEELS - 1; w >= 1; w--) {
+            if ((now & ((1L << (SLOT_BITS * w)) - 1)) == 0) {
+                cascade(w, (int) ((now >> (SLOT_BITS * w)) & SLOT_MASK));
+            }
+        }
+
+        // Timers re-inserted while running always land in a later slot
+        ArrayDeque<Timer> due = wheels[0][(int) (now & SLOT_MASK)];
+        Timer timer;
+        while ((timer = due.poll()) != null) {
+            if (timer.cancelled) {
+                continue;
+            }
+
+            timer.task.run();
+
+            if (timer.period > 0 && !timer.cancelled) {
+                timer.deadline = now + timer.period;
+                insert(timer);
+            }
+        }
+    }
+
+    /** Drops every scheduled timer and resets the clock. */
+    public void clear() {
+        for (ArrayDeque<Timer>[] wheel : wheels) {
+            for (ArrayDeque<Timer> slot : wheel) {
+                for (Timer timer : slot) {
+                    timer.cancel();
+                }
+                slot.clear();
+            }
+        }
+        for (Timer timer : overflow) {
+            timer.cancel();
+        }
+        overflow.clear();
+        now = 0L;
+    }
+
+    private void cascade(int wheel, int slot) {
+        ArrayDeque<Timer> timers = wheels[wheel][slot];
+        Timer timer;
+        while ((timer = timers.poll()) != null) {
+            if (!timer.cancelled) {
+                insert(timer);
+            }
+        }
+    }
+
+    private void insert(Timer timer) {
+        // Only reachable when cascading: a timer due this very tick goes to the current slot
+        if (timer.deadline < now) {
+            timer.deadline = now;
+        }
+
+        for (int w = 0; w < WHEELS; w++) {
+            int blockShift = SLOT_BITS * (w + 1);
+            if ((timer.deadline >> blockShift) == (now >> blockShift)) {
+                int slot = (int) ((timer.deadline >> (SLOT_BITS * w)) & SLOT_MASK);
+                wheels[w][slot].add(timer);
+                return;
+            }
+        }
+
+        overflow.add(timer);
+    }
+}
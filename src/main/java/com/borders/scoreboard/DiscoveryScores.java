@@ -0,0 +1,152 @@
+package com.borders.scoreboard;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Authoritative discovery scores, keyed by player UUID.
+ *
+ * Scores survive renames: the UUID is the key, and the last known name is
+ * kept in a separate cache that is only used for display (sidebar,
+ * /borders top) and refreshed whenever the player joins or scores.
+ *
+ * Saves from before UUID keys stored scores by name. Those are kept as
+ * "unclaimed" and added to the player's UUID score the next time a player
+ * with that name joins.
+ *
+ * The ranking (Leaderboard) is updated together with every score change,
+ * so the sidebar and /borders top never sort or scan.
+ *
+ * Not thread-safe; only used from the server thread.
+ */
+public class DiscoveryScores {
+
+    private final Object2IntOpenHashMap<UUID> scores = new Object2IntOpenHashMap<>();
+    private final Map<UUID, String> names = new HashMap<>();
+
+    /** Name-keyed scores from older saves, waiting for their player to join. */
+    private final Map<String, Integer> unclaimed = new HashMap<>();
+
+    private final Leaderboard<UUID> ranking = new Leaderboard<>(Comparator.naturalOrder());
+
+    /** Number of players with a score (unclaimed ones not included). */
+    public int size() {
+        return scores.size();
+    }
+
+    public int unclaimedCount() {
+        return unclaimed.size();
+    }
+
+    /** Unclaimed name-keyed scores (read-only view). */
+    public Map<String, Integer> unclaimed() {
+        return Collections.unmodifiableMap(unclaimed);
+    }
+
+    public boolean contains(UUID id) {
+        return scores.containsKey(id);
+    }
+
+    /** The player's score, or 0 if they have none. */
+    public int get(UUID id) {
+        return scores.getInt(id);
+    }
+
+    /** Last known name of the player, or the UUID if none was ever seen. */
+    public String nameOf(UUID id) {
+        String name = names.get(id);
+        return name != null ? name : id.toString();
+    }
+
+    /** Players ranked by score (read-only use). */
+    public Leaderboard<UUID> ranking() {
+        return ranking;
+    }
+
+    /**
+     * Adds {@code delta} to the player's score (creating it at 0) and
+     * refreshes their cached name.
+     *
+     * @return the new score
+     */
+    public int add(UUID id, String name, int delta) {
+        int score = scores.getInt(id) + delta;
+        scores.put(id, score);
+        names.put(id, name);
+        ranking.put(id, score);
+        return score;
+    }
+
+    /**
+     * Refreshes the cached name of a player who has a score.
+     *
+     * @return true if the displayed name changed
+     */
+    public boolean updateName(UUID id, String name) {
+        if (!scores.containsKey(id)) {
+            return false;
+        }
+        return !name.equals(names.put(id, name));
+    }
+
+    /**
+     * Moves an unclaimed name-keyed score to the player's UUID.
+     * Added rather than set: a crash after the claim but before the next
+     * save replays the player's newer deltas on top of the old snapshot,
+     * where the score is unclaimed again.
+     *
+     * @return the claimed score, or 0 if there was none
+     */
+    public int claim(UUID id, String name) {
+        Integer legacy = unclaimed.remove(name);
+        if (legacy == null) {
+            return 0;
+        }
+        add(id, name, legacy);
+        return legacy;
+    }
+
+    public void clear() {
+        scores.clear();
+        names.clear();
+        unclaimed.clear();
+        ranking.clear();
+    }
+
+    /** Replaces all scores with a snapshot's (see BordersSavedData). */
+    public void load(Map<UUID, Integer> savedScores, Map<UUID, String> savedNames, Map<String, Integer> legacy) {
+        clear();
+        if (savedScores != null) {
+            scores.ensureCapacity(savedScores.size());
+            for (Map.Entry<UUID, Integer> entry : savedScores.entrySet()) {
+                scores.put(entry.getKey(), (int) entry.getValue());
+                ranking.put(entry.getKey(), entry.getValue());
+                String name = savedNames != null ? savedNames.get(entry.getKey()) : null;
+                if (name != null) {
+                    names.put(entry.getKey(), name);
+                }
+            }
+        }
+        if (legacy != null) {
+            unclaimed.putAll(legacy);
+        }
+    }
+
+    /** Copies all scores into a snapshot's maps. */
+    public void copyTo(Map<UUID, Integer> savedScores, Map<UUID, String> savedNames, Map<String, Integer> legacy) {
+        for (Object2IntMap.Entry<UUID> entry : scores.object2IntEntrySet()) {
+            savedScores.put(entry.getKey(), entry.getIntValue());
+            String name = names.get(entry.getKey());
+            if (name != null) {
+                savedNames.put(entry.getKey(), name);
+            }
+        }
+        legacy.putAll(unclaimed);
+    }
+}
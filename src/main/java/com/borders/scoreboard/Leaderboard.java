@@ -0,0 +1,233 @@
+package com.borders.scoreboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Order-statistic index over discovery scores: players ranked by score
+ * (highest first), ties broken by {@code tieOrder}.
+ *
+ * Backed by a treap (a binary search tree balanced by random heap
+ * priorities) whose nodes also store their subtree size, so that
+ *
+ *  - put / remove:   O(log n) expected
+ *  - rankOf:         O(log n)
+ *  - entries(k, n):  O(log n + n), e.g. the top K or one page
+ *
+ * A side map keeps each key's current score so updates can find the old
+ * node without a scan.
+ *
+ * Not thread-safe; only used from the server thread.
+ */
+public class Leaderboard<K> {
+
+    /** One ranked row. */
+    public record Entry<K>(K key, int score) {}
+
+    private static final class Node<K> {
+        private final K key;
+        private final int score;
+        private final int priority;
+        private Node<K> left;
+        private Node<K> right;
+        private int size = 1;
+
+        private Node(K key, int score, int priority) {
+            this.key = key;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<K> tieOrder;
+    private final Map<K, Integer> scores = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<K> root = null;
+
+    public Leaderboard(Comparator<K> tieOrder) {
+        this.tieOrder = tieOrder;
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    public boolean contains(K key) {
+        return scores.containsKey(key);
+    }
+
+    /** {@code key}'s score, or null if it has none. */
+    public Integer getScore(K key) {
+        return scores.get(key);
+    }
+
+    /** Sets {@code key}'s score, adding it if missing. */
+    public void put(K key, int score) {
+        Integer old = scores.put(key, score);
+        if (old != null) {
+            if (old == score) {
+                return;
+            }
+            root = delete(root, old, key);
+        }
+        root = insert(root, new Node<>(key, score, random.nextInt()));
+    }
+
+    public void remove(K key) {
+        Integer old = scores.remove(key);
+        if (old != null) {
+            root = delete(root, old, key);
+        }
+    }
+
+    public void clear() {
+        scores.clear();
+        root = null;
+    }
+
+    /** 1-based rank of {@code key}, or 0 if it has no score. */
+    public int rankOf(K key) {
+        Integer score = scores.get(key);
+        if (score == null) {
+            return 0;
+        }
+
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null) {
+            int c = compare(score, key, node);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left) + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Up to {@code count} entries in rank order, starting at the 0-based
+     * position {@code from} (0 = best).
+     */
+    public List<Entry<K>> entries(int from, int count) {
+        List<Entry<K>> out = new ArrayList<>(Math.max(0, Math.min(count, size() - from)));
+        if (from >= 0 && count > 0) {
+            collect(root, from, from + count, 0, out);
+        }
+        return out;
+    }
+
+    // ------------------------------------------------------------------
+    // Treap internals
+    // ------------------------------------------------------------------
+
+    /** Negative if (score, key) ranks before the node. */
+    private int compare(int score, K key, Node<K> node) {
+        if (score != node.score) {
+            return score > node.score ? -1 : 1;
+        }
+        return tieOrder.compare(key, node.key);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> added) {
+        if (node == null) {
+            return added;
+        }
+
+        if (compare(added.score, added.key, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<K> delete(Node<K> node, int score, K key) {
+        if (node == null) {
+            return null;
+        }
+
+        int c = compare(score, key, node);
+        if (c < 0) {
+            node.left = delete(node.left, score, key);
+        } else if (c > 0) {
+            node.right = delete(node.right, score, key);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<K> merge(Node<K> a, Node<K> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private Node<K> rotateRight(Node<K> node) {
+        Node<K> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<K> rotateLeft(Node<K> node) {
+        Node<K> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /** In-order walk of positions [lo, hi), skipping subtrees outside the range. */
+    private void collect(Node<K> node, int lo, int hi, int base, List<Entry<K>> out) {
+        if (node == null || base >= hi) {
+            return;
+        }
+
+        int index = base + size(node.left);
+        if (lo < index) {
+            collect(node.left, lo, hi, base, out);
+        }
+        if (index >= lo && index < hi) {
+            out.add(new Entry<>(node.key, node.score));
+        }
+        if (index + 1 < hi) {
+            collect(node.right, lo, hi, index + 1, out);
+        }
+    }
+}
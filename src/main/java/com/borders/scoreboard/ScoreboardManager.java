@@ -1,142 +1,309 @@
 package com.borders.scoreboard;
 
 import com.borders.BordersMod;
+import com.borders.persistence.PersistenceManager;
+import com.borders.scheduler.SchedulerManager;
+import com.borders.scheduler.TimingWheel;
+import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.TextColor;
 import net.minecraft.network.chat.numbers.BlankFormat;
+import net.minecraft.network.protocol.game.ClientboundResetScorePacket;
+import net.minecraft.network.protocol.game.ClientboundSetScorePacket;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.scores.*;
 import net.minecraft.world.scores.criteria.ObjectiveCriteria;
-import net.minecraft.server.level.ServerLevel;
-import net.minecraft.world.level.Level;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 
 /**
- * Manages the scoreboard objective used to track the number of
- * unique items discovered during the Borders game.
+ * Renders the Borders sidebar from the discovery scores.
+ *
+ * The scores themselves live in GameState.DISCOVERY_SCORES (by UUID); the
+ * vanilla scoreboard only holds what the sidebar shows, in the
+ * borders_sidebar objective: the title, the fixed lines and the TOP_LINES
+ * best players, so clients never receive (or sort) more than a screenful
+ * of entries. Player lines are keyed by UUID and show the cached name as
+ * display text, so two players never share (or overwrite) a line.
+ *
+ * The borders_discoveries objective of older versions is kept as a
+ * read-only mirror of the scores by player name, for datapacks, /scoreboard
+ * users and other mods. It is not displayed, so updating it costs no
+ * packets; changes made to it by others are overwritten on the next sync.
  *
  * This class:
- *  - Creates the sidebar objective if missing
+ *  - Creates the sidebar objective if missing and shows it
  *  - Applies consistent styling to it
  *  - Adds a blank spacer line under the title
  *  - Adds a border-size line under the spacer
  *  - Adds a separator line under the border-size line
+ *  - Mirrors the top players, and shows each player outside the top
+ *    their own rank as an extra line sent only to them
  *  - Exposes a reset method used by /borders reset
  *  - Exposes a border-size update helper used when the border changes
- *  - Exposes helpers to export/import player scores for persistence
+ *
+ * The sidebar is rendered against its last visible state: a line is only
+ * sent when its score or text changed, the border line keeps one holder
+ * and changes its text through a display override, and refreshes are
+ * coalesced to at most one every REFRESH_INTERVAL_TICKS.
  */
 public class ScoreboardManager {
 
-    /** Name of the objective used for discovery count tracking. */
+    /** Name of the objective shown on the sidebar. */
+    public static final String SIDEBAR_OBJECTIVE_NAME = "borders_sidebar";
+
+    /** Mirror of the discovery scores by player name (see class doc). */
     public static final String DISCOVERY_OBJECTIVE_NAME = "borders_discoveries";
 
+    /**
+     * Players mirrored to the sidebar. Clients show at most 15 lines:
+     * 3 fixed lines + 11 players + the viewer's own rank line.
+     */
+    public static final int TOP_LINES = 11;
+
     /** Fake entry used as a spacer line under the title. */
     private static final String SPACER_NAME = " ";
 
     /** Fake entry used as a separator line under the border line. */
     private static final String SEPARATOR_NAME = "§8────────────";
 
-    /** Prefix used by the fake "Border size: X" line. */
-    private static final String BORDER_LINE_PREFIX = "§bBorder size:";
+    /** Holder of the "Border size: X" line; its visible text is a display override. */
+    private static final String BORDER_LINE_NAME = "§bBorder size:";
+
+    /** Minimum ticks between two sidebar refreshes (fast growth sends one update per window). */
+    private static final int REFRESH_INTERVAL_TICKS = 10;
+
+    /** True if scores changed since the top lines were last rendered. */
+    private static boolean rankingDirty = false;
 
     /**
-     * Tracks the last "Border size: X" line used on the scoreboard so we can
-     * remove it cleanly before adding an updated line.
+     * Line index of the sidebar objective: the last score sent for each of
+     * its lines (fixed lines and top players, by holder). Missing means the
+     * line must be (re)created. Kept current by ServerScoreboardMixin, so an
+     * outside change to one line only re-sends that line.
      */
-    private static String lastBorderLineName = null;
+    private static final Map<String, Integer> renderedScores = new HashMap<>();
+
+    /** Last display text sent for each indexed line (null = plain holder name). */
+    private static final Map<String, Component> renderedText = new HashMap<>();
+
+    /** Line holders of the players currently shown in the top lines (see holderOf). */
+    private static Set<String> renderedTop = new LinkedHashSet<>();
+
+    /** Own rank lines sent to individual players outside the top. */
+    private static final Map<UUID, OwnLine> ownLines = new HashMap<>();
+
+    private record OwnLine(String name, int score, int rank) {}
+
+    /** Scheduler tick of the last sidebar refresh. */
+    private static long lastRenderTick = -REFRESH_INTERVAL_TICKS;
+
+    /** Pending coalesced sidebar refresh, or null. */
+    private static TimingWheel.Timer renderTimer = null;
 
     /**
-     * Ensures the discovery scoreboard objective exists, is styled consistently,
-     * and is shown on the sidebar (DisplaySlot.SIDEBAR).
+     * The sidebar objective once it has been created/validated with all
+     * fixed lines in place. null means the next getOrCreateSidebarObjective
+     * call must (re)build it. See invalidate().
+     */
+    private static Objective cachedObjective = null;
+
+    /** True while Borders itself edits the scoreboard, so the change listener ignores it. */
+    private static boolean updating = false;
+
+    /**
+     * Ensures the sidebar objective exists, is styled consistently, is shown
+     * on DisplaySlot.SIDEBAR, and its lines are rendered.
      *
-     * It also ensures the spacer, border-size, and separator lines are present.
+     * The work (and its packets to every client) is only done once: after
+     * that the cached objective is returned until invalidate() is called by
+     * /borders reload, a reset, or an external scoreboard change.
      *
      * @return The objective instance (new or existing)
      */
-    public static Objective getOrCreateDiscoveryObjective(MinecraftServer server) {
-        Scoreboard scoreboard = server.getScoreboard();
+    public static Objective getOrCreateSidebarObjective(MinecraftServer server) {
+        if (cachedObjective != null) {
+            return cachedObjective;
+        }
 
-        // Check if the objective already exists
-        Objective objective = scoreboard.getObjective(DISCOVERY_OBJECTIVE_NAME);
-        if (objective == null) {
+        boolean nested = updating;
+        updating = true;
+        try {
+            buildSidebar(server);
+        } finally {
+            updating = nested;
+        }
+        return cachedObjective;
+    }
 
-            // Create new sidebar objective
-            objective = scoreboard.addObjective(
-                    DISCOVERY_OBJECTIVE_NAME,
-                    ObjectiveCriteria.DUMMY,
-                    Component.literal("BORDERS")
-                            .withStyle(style -> style
-                                    .withColor(TextColor.fromRgb(0x00FFFF)) // bright aqua
-                                    .withBold(true)
-                            ),
-                    ObjectiveCriteria.RenderType.INTEGER,
-                    false,
-                    null
-            );
+    /**
+     * Forces the next getOrCreateSidebarObjective call to rebuild the
+     * sidebar objective, its title and lines, and the sidebar slot.
+     * Everything is fully re-sent on the next render.
+     */
+    public static void invalidate() {
+        cachedObjective = null;
+        renderedScores.clear();
+        renderedText.clear();
+        renderedTop = new LinkedHashSet<>();
+        ownLines.clear();
+    }
 
-        } else {
+    /**
+     * Drops the cached objective and render state.
+     * Called from SERVER_STOPPED so nothing carries over into the next server.
+     */
+    public static void clear() {
+        invalidate();
+        renderTimer = null;  // cancelled by SchedulerManager.clear()
+        lastRenderTick = -REFRESH_INTERVAL_TICKS;
+        rankingDirty = false;
+    }
 
-            // Force the title style even if created earlier
-            objective.setDisplayName(
-                    Component.literal("BORDERS")
-                            .withStyle(style -> style
-                                    .withColor(TextColor.fromRgb(0x00FFFF))
-                                    .withBold(true)
-                            )
-            );
+    /**
+     * Called on join: refreshes the player's cached name, claims a score
+     * saved under their name by an older version, and shows their own rank
+     * on the next refresh.
+     */
+    public static void onPlayerJoin(MinecraftServer server, ServerPlayer player) {
+        DiscoveryScores scores = BordersMod.STATE.DISCOVERY_SCORES;
+        String name = player.getScoreboardName();
+
+        int claimed = scores.claim(player.getUUID(), name);
+        if (claimed > 0) {
+            BordersMod.LOGGER.info("[Borders] Moved {}'s saved score ({}) to their UUID.", name, claimed);
+        }
+        String previousName = scores.contains(player.getUUID()) ? scores.nameOf(player.getUUID()) : null;
+        boolean renamed = scores.updateName(player.getUUID(), name);
+        if (claimed > 0 || renamed) {
+            PersistenceManager.markDirty();
+            if (renamed && previousName != null) {
+                unmirror(server, List.of(previousName));
+            }
+            mirrorScore(server, player.getUUID());
         }
 
-        // ------------------------------------------------------------
-        // Spacer line directly under the title
-        // ------------------------------------------------------------
-        ScoreHolder spacerHolder = () -> SPACER_NAME;  // pure blank line
-        ScoreAccess spacerScore = scoreboard.getOrCreatePlayerScore(spacerHolder, objective);
-        spacerScore.set(10002);
-        spacerScore.numberFormatOverride(BlankFormat.INSTANCE);
+        ownLines.remove(player.getUUID());
+        onScoresChanged(server);
+    }
 
-        // ------------------------------------------------------------
-        // Border size line just under the spacer
-        // ------------------------------------------------------------
-        updateBorderSizeLine(server);
+    /** Called on disconnect: whatever was sent to the player is gone with the connection. */
+    public static void onPlayerLeave(ServerPlayer player) {
+        ownLines.remove(player.getUUID());
+    }
 
-        // ------------------------------------------------------------
-        // Add a separator "line" right under the border line
-        // ------------------------------------------------------------
-        ScoreHolder separatorHolder = () -> SEPARATOR_NAME;  // dark grey line
+    /**
+     * Called after one player's discovery score changed: updates the
+     * borders_discoveries mirror, and the sidebar on the next refresh.
+     */
+    public static void onScoreChanged(MinecraftServer server, UUID player) {
+        mirrorScore(server, player);
+        onScoresChanged(server);
+    }
 
-        ScoreAccess separatorScore = scoreboard.getOrCreatePlayerScore(separatorHolder, objective);
+    /**
+     * Called after GameState.DISCOVERY_SCORES changed (a discovery, a load,
+     * a join). The sidebar shows the new ranking on the next refresh.
+     */
+    public static void onScoresChanged(MinecraftServer server) {
+        rankingDirty = true;
+        requestRender(server);
+    }
 
-        // High value ensures it sorts below the border line but above players
-        separatorScore.set(10000);
+    /**
+     * Called after a snapshot was loaded into GameState: claims the scores
+     * of online players, resyncs the mirror and redraws the ranking.
+     */
+    public static void onScoresLoaded(MinecraftServer server) {
+        DiscoveryScores scores = BordersMod.STATE.DISCOVERY_SCORES;
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            scores.claim(player.getUUID(), player.getScoreboardName());
+            scores.updateName(player.getUUID(), player.getScoreboardName());
+        }
+        syncMirror(server);
+        onScoresChanged(server);
+    }
 
-        // Hide its actual numeric score (1.21.x style)
-        separatorScore.numberFormatOverride(BlankFormat.INSTANCE);
+    /**
+     * Called by ServerScoreboardMixin after the scoreboard changed, unless
+     * Borders made the change itself. A change to one indexed line drops
+     * that line from the index and re-renders it; any other change to the
+     * sidebar objective invalidates the whole sidebar.
+     *
+     * @param objective  Affected objective, or null for changes to all objectives
+     * @param holderName Affected score holder, or null for objective-level changes
+     */
+    public static void onScoreboardChanged(MinecraftServer server, Objective objective, String holderName) {
+        if (updating || cachedObjective == null) {
+            return;
+        }
+        if (holderName != null && renderedScores.containsKey(holderName)
+                && (objective == null || objective == cachedObjective)) {
+            renderedScores.remove(holderName);
+            renderedText.remove(holderName);
+            renderedTop.remove(holderName);
+            rankingDirty = true;
+            requestRender(server);
+        } else if (objective == cachedObjective) {
+            invalidate();
+        }
+    }
+
+    /** Called by ServerScoreboardMixin when any display slot is (re)assigned. */
+    public static void onDisplaySlotChanged(DisplaySlot slot, Objective objective) {
+        if (!updating && slot == DisplaySlot.SIDEBAR && cachedObjective != null && objective != cachedObjective) {
+            // Someone else took the sidebar; Borders shows its objective again on the next use
+            invalidate();
+        }
+    }
+
+    /** Creates the sidebar objective, its fixed lines and the sidebar slot, then renders it. */
+    private static void buildSidebar(MinecraftServer server) {
+        Scoreboard scoreboard = server.getScoreboard();
+
+        // Always rebuilt, so its contents are known
+        Objective objective = scoreboard.getObjective(SIDEBAR_OBJECTIVE_NAME);
+        if (objective != null) {
+            scoreboard.removeObjective(objective);
+        }
+        objective = scoreboard.addObjective(
+                SIDEBAR_OBJECTIVE_NAME,
+                ObjectiveCriteria.DUMMY,
+                Component.literal("BORDERS")
+                        .withStyle(style -> style
+                                .withColor(TextColor.fromRgb(0x00FFFF)) // bright aqua
+                                .withBold(true)
+                        ),
+                ObjectiveCriteria.RenderType.INTEGER,
+                false,
+                null
+        );
+
+        // Nothing of the old sidebar survives the removal
+        invalidate();
 
         // ------------------------------------------------------------
         // Make this the active sidebar objective
         // ------------------------------------------------------------
         scoreboard.setDisplayObjective(DisplaySlot.SIDEBAR, objective);
 
-        return objective;
-    }
+        cachedObjective = objective;
 
-    /**
-     * Removes any existing "Border size" lines from the scoreboard objective,
-     * without touching real player entries.
-     *
-     * This is important across restarts, where we may not know the exact
-     * previous line text but we still want to get rid of old border entries.
-     */
-    private static void cleanupBorderLines(Scoreboard scoreboard, Objective objective) {
-        for (ScoreHolder holder : scoreboard.getTrackedPlayers()) {
-            String name = holder.getScoreboardName();
-            if (name != null && name.startsWith(BORDER_LINE_PREFIX)) {
-                scoreboard.resetSinglePlayerScore(holder, objective);
-            }
-        }
+        // Fixed lines and players
+        rankingDirty = true;
+        renderSidebar(server);
     }
 
     /**
@@ -149,140 +316,314 @@ public class ScoreboardManager {
      *  ────────────
      *  Player1 5
      *  Player2 3
+     *  ...            (top TOP_LINES players)
+     *  #42 You 1      (only shown to you, if you are outside the top)
      *
-     * The line is a fake "player" entry whose name encodes the border size.
-     * Its numeric score is large (10001) and hidden, so ordering is driven
-     * by the score while the visible text shows the actual border size.
+     * The line is a fake "player" entry with a fixed name and a display
+     * override showing the border size. Its numeric score is large (10001)
+     * and hidden, so ordering is driven by the score while the visible text
+     * shows the actual border size.
      */
     public static void updateBorderSizeLine(MinecraftServer server) {
-        Scoreboard scoreboard = server.getScoreboard();
-        Objective objective = scoreboard.getObjective(DISCOVERY_OBJECTIVE_NAME);
+        requestRender(server);
+    }
 
-        if (objective == null) {
-            // Objective not created yet – nothing to update
+    /**
+     * Refreshes the sidebar, rate limited: the first change after a quiet
+     * period is shown at once, further changes within REFRESH_INTERVAL_TICKS
+     * are coalesced into one refresh that reads the state when it runs.
+     */
+    private static void requestRender(MinecraftServer server) {
+        if (renderTimer != null) {
+            // A refresh is already pending and will pick up this change
             return;
         }
 
-        // Remove *any* existing border lines (including ones from previous runs)
-        cleanupBorderLines(scoreboard, objective);
-
-        // Remove previous border line if we tracked one this session
-        if (lastBorderLineName != null) {
-            ScoreHolder oldHolder = () -> lastBorderLineName;
-            scoreboard.resetSinglePlayerScore(oldHolder, objective);
+        long wait = lastRenderTick + REFRESH_INTERVAL_TICKS - SchedulerManager.now();
+        if (wait <= 0) {
+            render(server);
+            return;
         }
 
-        // ─────────────────────────────────────────────
-        // NEW: sync from the actual world border size
-        // ─────────────────────────────────────────────
-        double borderSize = BordersMod.STATE.currentBorderSize;
+        renderTimer = SchedulerManager.schedule(wait, () -> {
+            renderTimer = null;
+            render(server);
+        });
+    }
+
+    private static void render(MinecraftServer server) {
+        if (cachedObjective == null) {
+            if (server.getScoreboard().getObjective(SIDEBAR_OBJECTIVE_NAME) == null
+                    && BordersMod.STATE.DISCOVERY_SCORES.size() == 0) {
+                // Sidebar not set up yet (first /borders start or discovery creates it)
+                return;
+            }
+            // Rebuilding renders everything
+            getOrCreateSidebarObjective(server);
+            return;
+        }
 
-        ServerLevel overworld = server.getLevel(Level.OVERWORLD);
-        if (overworld != null) {
-            borderSize = overworld.getWorldBorder().getSize();
-            // Keep GameState in sync with the real border
-            BordersMod.STATE.currentBorderSize = borderSize;
+        boolean nested = updating;
+        updating = true;
+        try {
+            renderSidebar(server);
+        } finally {
+            updating = nested;
         }
+    }
+
+    /** Renders the fixed lines, the top players and the own rank lines. */
+    private static void renderSidebar(MinecraftServer server) {
+        lastRenderTick = SchedulerManager.now();
+        Scoreboard scoreboard = server.getScoreboard();
 
-        int displaySize = (int) Math.round(borderSize);
-        String newName = BORDER_LINE_PREFIX + " §e" + displaySize; // §bBorder size: §eX
+        // Spacer directly under the title
+        renderLine(scoreboard, cachedObjective, SPACER_NAME, 10002, null, true);  // pure blank line
 
-        ScoreHolder borderHolder = () -> newName;
-        ScoreAccess borderScore = scoreboard.getOrCreatePlayerScore(borderHolder, objective);
+        // Separator under the border line; sorts below it but above players
+        renderLine(scoreboard, cachedObjective, SEPARATOR_NAME, 10000, null, true);  // dark grey line
+
+        // GameState is the source of truth; per-dimension WorldBorders may be
+        // scaled copies of it, so never read the size back from a level.
+        int displaySize = (int) Math.round(BordersMod.STATE.currentBorderSize);
+
+        Component text = Component.literal("Border size: ").withStyle(ChatFormatting.AQUA)
+                .append(Component.literal(String.valueOf(displaySize)).withStyle(ChatFormatting.YELLOW));
 
         // High score so it appears under the spacer and above the separator
-        borderScore.set(10001);
-        // Hide the numeric value; we only want the text "Border size: X"
-        borderScore.numberFormatOverride(BlankFormat.INSTANCE);
+        renderLine(scoreboard, cachedObjective, BORDER_LINE_NAME, 10001, text, true);
 
-        lastBorderLineName = newName;
+        if (rankingDirty) {
+            rankingDirty = false;
+            renderTop(scoreboard, cachedObjective);
+            renderOwnLines(server);
+        }
     }
 
-
     /**
-     * Resets all discovery scores — used by /borders reset.
+     * Shows the fake line {@code name} at {@code score} with {@code text}
+     * (null = the holder name itself), sending only what differs from the
+     * line's last rendered state.
      *
-     * Note: this clears all tracked entries for this objective (including
-     * fake entries). The next time /borders start or a discovery happens
-     * and getOrCreateDiscoveryObjective is called, the spacer/border/separator
-     * lines will be recreated.
+     * @param hideNumber true for fixed lines, whose score only orders them
      */
-    public static void resetDiscoveryScores(MinecraftServer server) {
-        Scoreboard scoreboard = server.getScoreboard();
-        Objective objective = scoreboard.getObjective(DISCOVERY_OBJECTIVE_NAME);
+    private static void renderLine(Scoreboard scoreboard, Objective objective,
+                                   String name, int score, Component text, boolean hideNumber) {
+        Integer shownScore = renderedScores.get(name);
+        boolean created = shownScore == null;
+        if (!created && shownScore == score && Objects.equals(renderedText.get(name), text)) {
+            return;
+        }
 
-        if (objective != null) {
-            for (ScoreHolder holder : scoreboard.getTrackedPlayers()) {
-                scoreboard.resetSinglePlayerScore(holder, objective);
+        ScoreAccess access = scoreboard.getOrCreatePlayerScore(ScoreHolder.forNameOnly(name), objective);
+        if (created || shownScore != score) {
+            access.set(score);
+        }
+        if (!Objects.equals(renderedText.get(name), text)) {
+            access.display(text);
+        }
+        if (created && hideNumber) {
+            // Hide the numeric value; we only want the text
+            access.numberFormatOverride(BlankFormat.INSTANCE);
+        }
+
+        renderedScores.put(name, score);
+        renderedText.put(name, text);
+    }
+
+    /** Mirrors the TOP_LINES best players, sending only entries that left, joined or changed. */
+    private static void renderTop(Scoreboard scoreboard, Objective objective) {
+        DiscoveryScores scores = BordersMod.STATE.DISCOVERY_SCORES;
+
+        Set<String> top = new LinkedHashSet<>();
+        for (Leaderboard.Entry<UUID> entry : scores.ranking().entries(0, TOP_LINES)) {
+            String holder = holderOf(entry.key());
+            top.add(holder);
+            renderLine(scoreboard, objective, holder, entry.score(),
+                    Component.literal(scores.nameOf(entry.key())), false);
+        }
+
+        for (String holder : renderedTop) {
+            if (!top.contains(holder)) {
+                scoreboard.resetSinglePlayerScore(ScoreHolder.forNameOnly(holder), objective);
+                renderedScores.remove(holder);
+                renderedText.remove(holder);
             }
-            // Forget any cached border line name so we don't try to delete it later
-            lastBorderLineName = null;
         }
+
+        renderedTop = top;
     }
 
     /**
-     * Export current player scores (for the Borders objective) so they can be
-     * written into persistent storage (JSON).
-     *
-     * Fake entries (spacer, separator, border line) are skipped.
+     * Sends every online player outside the top their own "#rank name"
+     * line. These entries only exist on that player's client and use the
+     * same holder as the player's top line would: a shared top line
+     * replaces it, a shared reset removes it.
      */
-    public static Map<String, Integer> exportPlayerScores(MinecraftServer server) {
-        Map<String, Integer> result = new HashMap<>();
+    private static void renderOwnLines(MinecraftServer server) {
+        DiscoveryScores scores = BordersMod.STATE.DISCOVERY_SCORES;
+
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            UUID id = player.getUUID();
+            String holder = holderOf(id);
+            int rank = scores.ranking().rankOf(id);
+            OwnLine sent = ownLines.get(id);
+
+            if (rank == 0 || renderedTop.contains(holder)) {
+                // No score, or the shared top line shows this player already
+                if (sent != null && rank == 0) {
+                    player.connection.send(new ClientboundResetScorePacket(holder, SIDEBAR_OBJECTIVE_NAME));
+                }
+                ownLines.remove(id);
+                continue;
+            }
 
-        Scoreboard scoreboard = server.getScoreboard();
+            // A rename only changes the text; the holder stays the same
+            OwnLine line = new OwnLine(scores.nameOf(id), scores.get(id), rank);
+            if (line.equals(sent)) {
+                continue;
+            }
+
+            Component text = Component.literal("#" + rank + " ").withStyle(ChatFormatting.GRAY)
+                    .append(Component.literal(line.name()));
+            player.connection.send(new ClientboundSetScorePacket(
+                    holder, SIDEBAR_OBJECTIVE_NAME, line.score(), Optional.of(text), Optional.empty()));
+            ownLines.put(id, line);
+        }
+    }
+
+    /** Sidebar holder of a player's line: the UUID, never shown (the name is display text). */
+    private static String holderOf(UUID player) {
+        return player.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // borders_discoveries mirror
+    // ------------------------------------------------------------------------
+
+    /**
+     * The mirror objective, created (not displayed) if missing. An objective
+     * still holding the fixed lines of the old single-objective sidebar is
+     * cleaned up once.
+     */
+    private static Objective mirrorObjective(Scoreboard scoreboard) {
         Objective objective = scoreboard.getObjective(DISCOVERY_OBJECTIVE_NAME);
         if (objective == null) {
-            return result;
+            objective = scoreboard.addObjective(
+                    DISCOVERY_OBJECTIVE_NAME,
+                    ObjectiveCriteria.DUMMY,
+                    Component.literal("Discoveries"),
+                    ObjectiveCriteria.RenderType.INTEGER,
+                    false,
+                    null
+            );
+        } else if (scoreboard.getPlayerScoreInfo(ScoreHolder.forNameOnly(SPACER_NAME), objective) != null) {
+            removeLegacyLines(scoreboard, objective);
         }
+        return objective;
+    }
 
-        for (ScoreHolder holder : scoreboard.getTrackedPlayers()) {
-            String name = holder.getScoreboardName();
-            if (name == null) {
-                continue;
+    /**
+     * One-time migration: older versions showed borders_discoveries on the
+     * sidebar, with the spacer, separator and "Border size: X" lines as
+     * fake players. This is the only full pass over the objective's scores;
+     * the spacer is removed with the rest, so it never runs again.
+     */
+    private static void removeLegacyLines(Scoreboard scoreboard, Objective objective) {
+        List<String> legacy = new ArrayList<>();
+        for (PlayerScoreEntry entry : scoreboard.listPlayerScores(objective)) {
+            String name = entry.owner();
+            if (name.equals(SPACER_NAME) || name.equals(SEPARATOR_NAME) || name.startsWith(BORDER_LINE_NAME)) {
+                legacy.add(name);
             }
+        }
+        for (String name : legacy) {
+            scoreboard.resetSinglePlayerScore(ScoreHolder.forNameOnly(name), objective);
+        }
+        BordersMod.LOGGER.info("[Borders] Removed {} old sidebar line(s) from the '{}' objective.",
+                legacy.size(), DISCOVERY_OBJECTIVE_NAME);
+    }
 
-            // Skip our fake entries
-            if (name.equals(SPACER_NAME)) continue;
-            if (name.equals(SEPARATOR_NAME)) continue;
-            if (name.startsWith(BORDER_LINE_PREFIX)) continue;
+    /** Copies one player's score to the mirror, under their cached name. */
+    private static void mirrorScore(MinecraftServer server, UUID player) {
+        DiscoveryScores scores = BordersMod.STATE.DISCOVERY_SCORES;
+        if (!scores.contains(player)) {
+            return;
+        }
 
-            ScoreAccess access = scoreboard.getOrCreatePlayerScore(holder, objective);
-            int value = access.get();   // 1.21.x method name in this mapping
-            result.put(name, value);
+        Scoreboard scoreboard = server.getScoreboard();
+        scoreboard.getOrCreatePlayerScore(ScoreHolder.forNameOnly(scores.nameOf(player)), mirrorObjective(scoreboard))
+                .set(scores.get(player));
+    }
+
+    /**
+     * Sets every score of DISCOVERY_SCORES on the mirror, by name (claimed
+     * and unclaimed). If two players share a cached name, the higher score
+     * is shown. Names that leave the scores are removed where they leave
+     * (see unmirror), so this never scans the scoreboard.
+     */
+    private static void syncMirror(MinecraftServer server) {
+        DiscoveryScores scores = BordersMod.STATE.DISCOVERY_SCORES;
+        Scoreboard scoreboard = server.getScoreboard();
+        Objective objective = mirrorObjective(scoreboard);
+
+        Map<String, Integer> wanted = new HashMap<>();
+        for (Leaderboard.Entry<UUID> entry : scores.ranking().entries(0, scores.size())) {
+            wanted.putIfAbsent(scores.nameOf(entry.key()), entry.score());
+        }
+        // Scores of older saves stay visible until their player claims them
+        for (Map.Entry<String, Integer> entry : scores.unclaimed().entrySet()) {
+            wanted.putIfAbsent(entry.getKey(), entry.getValue());
         }
 
-        return result;
+        for (Map.Entry<String, Integer> entry : wanted.entrySet()) {
+            ScoreHolder holder = ScoreHolder.forNameOnly(entry.getKey());
+            ReadOnlyScoreInfo current = scoreboard.getPlayerScoreInfo(holder, objective);
+            if (current == null || current.value() != entry.getValue()) {
+                scoreboard.getOrCreatePlayerScore(holder, objective).set(entry.getValue());
+            }
+        }
     }
 
     /**
-     * Import player scores from persistent storage into the Borders objective.
-     *
-     * This does not touch fake entries (spacer, separator, border line).
+     * Removes {@code names} from the mirror. Called with the names whose
+     * scores are dropped (a reset, a rename, a reset replayed from the
+     * journal at startup).
      */
-    public static void importPlayerScores(MinecraftServer server, Map<String, Integer> scores) {
-        if (scores == null || scores.isEmpty()) {
+    public static void unmirror(MinecraftServer server, Collection<String> names) {
+        Scoreboard scoreboard = server.getScoreboard();
+        Objective objective = scoreboard.getObjective(DISCOVERY_OBJECTIVE_NAME);
+        if (objective == null) {
             return;
         }
+        for (String name : names) {
+            scoreboard.resetSinglePlayerScore(ScoreHolder.forNameOnly(name), objective);
+        }
+    }
 
-        // Ensure objective + static lines exist
-        Objective objective = getOrCreateDiscoveryObjective(server);
-        Scoreboard scoreboard = server.getScoreboard();
+    /** Names the mirror holds for the current scores (claimed and unclaimed). */
+    private static Set<String> mirroredNames() {
+        DiscoveryScores scores = BordersMod.STATE.DISCOVERY_SCORES;
+        Set<String> names = new HashSet<>(scores.unclaimed().keySet());
+        for (Leaderboard.Entry<UUID> entry : scores.ranking().entries(0, scores.size())) {
+            names.add(scores.nameOf(entry.key()));
+        }
+        return names;
+    }
 
-        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
-            String name = entry.getKey();
-            int value = entry.getValue();
 
-            if (name == null || name.isEmpty()) {
-                continue;
-            }
-            // Extra paranoia: never treat our fake labels as "players"
-            if (name.equals(SPACER_NAME)) continue;
-            if (name.equals(SEPARATOR_NAME)) continue;
-            if (name.startsWith(BORDER_LINE_PREFIX)) continue;
-
-            ScoreHolder holder = () -> name;
-            ScoreAccess access = scoreboard.getOrCreatePlayerScore(holder, objective);
-            access.set(value);
-        }
+    /**
+     * Resets all discovery scores — used by /borders reset.
+     *
+     * Clears GameState.DISCOVERY_SCORES and the borders_discoveries mirror;
+     * the sidebar is rebuilt (without players) on the next refresh.
+     */
+    public static void resetDiscoveryScores(MinecraftServer server) {
+        unmirror(server, mirroredNames());
+        BordersMod.STATE.DISCOVERY_SCORES.clear();
+
+        // Rebuild the sidebar without the old players
+        invalidate();
+        onScoresChanged(server);
     }
 }
@@ -0,0 +1,32 @@
+package com.borders.shape;
+
+/**
+ * A border outline in "unit space": centered on the origin, with the
+ * border's half-size mapped to 1. The real outline is obtained by scaling
+ * by half the border size and moving it to the border center, so the shape
+ * grows with discoveries exactly like the vanilla square does.
+ *
+ * Unit-space outlines must fit inside [-1, 1] on both axes, which keeps the
+ * vanilla WorldBorder (a square of the same size) as an outer bound.
+ */
+public interface BorderShape {
+
+    /**
+     * Signed distance from (ux, uz) to the outline, in unit space.
+     * Positive inside, negative outside.
+     *
+     * Must never change faster than the point moves (1-Lipschitz), which
+     * ChunkClassGrid relies on to classify whole chunks from one sample.
+     */
+    double signedDistance(double ux, double uz);
+
+    /**
+     * True if scaling the shape up about the center never un-covers a point
+     * (the shape is star-shaped around the center). When true, chunks that
+     * were fully inside stay fully inside as the border grows.
+     */
+    boolean growsMonotonically();
+
+    /** Name used by /borders shape and persistence. */
+    String type();
+}
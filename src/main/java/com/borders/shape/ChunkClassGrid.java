@@ -0,0 +1,201 @@
+package com.borders.shape;
+
+/**
+ * Classifies every chunk in a border's bounding box as fully inside,
+ * fully outside, or crossing the edge of a BorderShape.
+ *
+ * Classification samples the signed distance once at the chunk center.
+ * Because signed distance changes at most as fast as the point moves, a
+ * chunk whose center is more than CHUNK_RADIUS inside (or outside) the
+ * outline is entirely inside (or outside). Everything else is EDGE and
+ * needs a precise test per position.
+ *
+ * Each INSIDE chunk also stores how many chunks away the nearest non-INSIDE
+ * chunk is (see edgeDistance), so players deep inside get a lower bound
+ * that grows with their depth instead of one capped at half a chunk.
+ *
+ * Grids are immutable; a border change builds a new grid, reusing the
+ * previous one when possible (see build). Building walks the whole bounding
+ * box, so borders wider than MAX_CELLS chunks get no grid at all: every
+ * chunk is EDGE and pays the precise test instead of a rebuild per resize.
+ */
+final class ChunkClassGrid {
+
+    static final byte OUTSIDE = 0;
+    static final byte INSIDE = 1;
+    static final byte EDGE = 2;
+
+    /** Distance from a chunk's center to its corners, in blocks. */
+    private static final double CHUNK_RADIUS = 8.0 * Math.sqrt(2.0);
+
+    /** Largest bounding box (in chunks) that is classified: 256 x 256 chunks. */
+    static final int MAX_CELLS = 1 << 16;
+
+    final BorderShape shape;
+    final double centerX;
+    final double centerZ;
+    final double half;
+
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int width;
+    private final int depth;
+    /** Chunk classes, or null if the bounding box is over MAX_CELLS (all EDGE). */
+    private final byte[] classes;
+
+    /** Chebyshev distance (in chunks) to the nearest non-INSIDE chunk; 0 if not INSIDE. */
+    private final int[] edgeDistances;
+
+    private ChunkClassGrid(BorderShape shape, double centerX, double centerZ, double half) {
+        this.shape = shape;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.half = half;
+
+        // Unit-space shapes fit in [-1, 1], so the bounding box is center ± half
+        this.minChunkX = ((int) Math.floor(centerX - half) >> 4) - 1;
+        this.minChunkZ = ((int) Math.floor(centerZ - half) >> 4) - 1;
+        int maxChunkX = ((int) Math.floor(centerX + half) >> 4) + 1;
+        int maxChunkZ = ((int) Math.floor(centerZ + half) >> 4) + 1;
+
+        this.width = maxChunkX - minChunkX + 1;
+        this.depth = maxChunkZ - minChunkZ + 1;
+
+        boolean classified = (long) width * depth <= MAX_CELLS;
+        this.classes = classified ? new byte[width * depth] : null;
+        this.edgeDistances = classified ? new int[width * depth] : null;
+    }
+
+    /**
+     * Builds a grid for the given geometry.
+     *
+     * The new grid always walks its whole bounding box, but the signed
+     * distance (O(vertices) per chunk for polygons) is only evaluated for
+     * chunks whose class can have changed. If {@code previous} has the same
+     * shape and center and the shape grows monotonically:
+     *  - on growth, former INSIDE chunks are copied as INSIDE, and
+     *  - on shrink, former OUTSIDE chunks are copied as OUTSIDE
+     * (scaling a star-shaped outline never un-covers, respectively covers,
+     * a point). A moved center or a different shape is fully reclassified.
+     * Over MAX_CELLS nothing is walked.
+     */
+    static ChunkClassGrid build(BorderShape shape, double centerX, double centerZ, double half,
+                                ChunkClassGrid previous) {
+        ChunkClassGrid grid = new ChunkClassGrid(shape, centerX, centerZ, half);
+        if (grid.classes == null) {
+            return grid;
+        }
+
+        boolean reusable = previous != null
+                && previous.classes != null
+                && previous.shape == shape
+                && previous.centerX == centerX
+                && previous.centerZ == centerZ
+                && shape.growsMonotonically();
+        byte kept = !reusable ? -1 : previous.half <= half ? INSIDE : OUTSIDE;
+
+        for (int dz = 0; dz < grid.depth; dz++) {
+            for (int dx = 0; dx < grid.width; dx++) {
+                int chunkX = grid.minChunkX + dx;
+                int chunkZ = grid.minChunkZ + dz;
+
+                if (reusable && previous.covers(chunkX, chunkZ) && previous.classify(chunkX, chunkZ) == kept) {
+                    grid.classes[dz * grid.width + dx] = kept;
+                    continue;
+                }
+
+                grid.classes[dz * grid.width + dx] = grid.classifyFresh(chunkX, chunkZ);
+            }
+        }
+
+        grid.computeEdgeDistances();
+        return grid;
+    }
+
+    /** Whether this grid was built for exactly this geometry. */
+    boolean matches(BorderShape shape, double centerX, double centerZ, double half) {
+        return this.shape == shape
+                && this.centerX == centerX
+                && this.centerZ == centerZ
+                && this.half == half;
+    }
+
+    /** Class of a chunk; anything beyond the bounding box is OUTSIDE. */
+    byte classify(int chunkX, int chunkZ) {
+        if (!covers(chunkX, chunkZ)) {
+            return OUTSIDE;
+        }
+        if (classes == null) {
+            return EDGE;
+        }
+        return classes[(chunkZ - minChunkZ) * width + (chunkX - minChunkX)];
+    }
+
+    /**
+     * For an INSIDE chunk, the Chebyshev distance in chunks to the nearest
+     * chunk that is not INSIDE (at least 1). The outline can only pass
+     * through such chunks, so a point in this chunk is at least
+     * {@code (edgeDistance - 1) * 16} blocks further from it than from its
+     * own chunk's boundary. 0 for other chunks.
+     */
+    int edgeDistance(int chunkX, int chunkZ) {
+        if (classes == null || !covers(chunkX, chunkZ)) {
+            return 0;
+        }
+        return edgeDistances[(chunkZ - minChunkZ) * width + (chunkX - minChunkX)];
+    }
+
+    /** Precise signed distance in world blocks. Positive inside. */
+    double signedDistance(double x, double z) {
+        return shape.signedDistance((x - centerX) / half, (z - centerZ) / half) * half;
+    }
+
+    private boolean covers(int chunkX, int chunkZ) {
+        int dx = chunkX - minChunkX;
+        int dz = chunkZ - minChunkZ;
+        return dx >= 0 && dz >= 0 && dx < width && dz < depth;
+    }
+
+    private byte classifyFresh(int chunkX, int chunkZ) {
+        double distance = signedDistance(chunkX * 16 + 8.0, chunkZ * 16 + 8.0);
+
+        if (distance > CHUNK_RADIUS) return INSIDE;
+        if (distance < -CHUNK_RADIUS) return OUTSIDE;
+        return EDGE;
+    }
+
+    /**
+     * Multi-source BFS over the 8-neighbourhood from every non-INSIDE chunk.
+     * The padding ring of the bounding box is never INSIDE, so every INSIDE
+     * chunk is reached.
+     */
+    private void computeEdgeDistances() {
+        int[] queue = new int[classes.length];
+        int head = 0;
+        int tail = 0;
+
+        for (int i = 0; i < classes.length; i++) {
+            if (classes[i] == INSIDE) {
+                edgeDistances[i] = -1;
+            } else {
+                queue[tail++] = i;
+            }
+        }
+
+        while (head < tail) {
+            int index = queue[head++];
+            int x = index % width;
+            int z = index / width;
+
+            for (int nz = Math.max(0, z - 1); nz <= Math.min(depth - 1, z + 1); nz++) {
+                for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+                    int neighbour = nz * width + nx;
+                    if (edgeDistances[neighbour] == -1) {
+                        edgeDistances[neighbour] = edgeDistances[index] + 1;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.borders.shape;
+
+/**
+ * Circular border whose diameter equals the border size.
+ */
+public final class CircleShape implements BorderShape {
+
+    public static final CircleShape INSTANCE = new CircleShape();
+
+    private CircleShape() {}
+
+    @Override
+    public double signedDistance(double ux, double uz) {
+        return 1.0 - Math.sqrt(ux * ux + uz * uz);
+    }
+
+    @Override
+    public boolean growsMonotonically() {
+        return true;
+    }
+
+    @Override
+    public String type() {
+        return "circle";
+    }
+}
@@ -0,0 +1,137 @@
+package com.borders.shape;
+
+/**
+ * Arbitrary simple polygon in unit space.
+ *
+ * Vertices are stored as a flat array {x0, z0, x1, z1, ...} and must all lie
+ * within [-1, 1]. The center (origin) must be inside the polygon so that the
+ * border grows outward from spawn.
+ */
+public final class PolygonShape implements BorderShape {
+
+    private final double[] xs;
+    private final double[] zs;
+    private final boolean convex;
+
+    /**
+     * @param vertices Flat {x0, z0, x1, z1, ...} array, at least 3 vertices
+     * @throws IllegalArgumentException if the polygon is invalid
+     */
+    public PolygonShape(double[] vertices) {
+        if (vertices == null || vertices.length < 6 || vertices.length % 2 != 0) {
+            throw new IllegalArgumentException("A polygon needs at least 3 x,z vertices.");
+        }
+
+        int n = vertices.length / 2;
+        this.xs = new double[n];
+        this.zs = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            double x = vertices[i * 2];
+            double z = vertices[i * 2 + 1];
+            if (Math.abs(x) > 1.0 || Math.abs(z) > 1.0) {
+                throw new IllegalArgumentException("Vertices must be within -1..1.");
+            }
+            xs[i] = x;
+            zs[i] = z;
+        }
+
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            if (xs[i] == xs[j] && zs[i] == zs[j]) {
+                throw new IllegalArgumentException("Consecutive vertices must differ.");
+            }
+        }
+
+        if (signedDistance(0.0, 0.0) <= 0.0) {
+            throw new IllegalArgumentException("The polygon must contain its center (0,0).");
+        }
+
+        this.convex = computeConvex();
+    }
+
+    /** Regular polygon with {@code sides} corners on the unit circle. */
+    public static PolygonShape regular(int sides) {
+        double[] vertices = new double[sides * 2];
+        for (int i = 0; i < sides; i++) {
+            double angle = 2.0 * Math.PI * i / sides;
+            vertices[i * 2] = Math.cos(angle);
+            vertices[i * 2 + 1] = Math.sin(angle);
+        }
+        return new PolygonShape(vertices);
+    }
+
+    /** Flat copy of the vertices, for persistence. */
+    public double[] vertices() {
+        double[] out = new double[xs.length * 2];
+        for (int i = 0; i < xs.length; i++) {
+            out[i * 2] = xs[i];
+            out[i * 2 + 1] = zs[i];
+        }
+        return out;
+    }
+
+    @Override
+    public double signedDistance(double ux, double uz) {
+        boolean inside = false;
+        double minDistSq = Double.MAX_VALUE;
+
+        int n = xs.length;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            double xi = xs[i], zi = zs[i];
+            double xj = xs[j], zj = zs[j];
+
+            // Even-odd crossing test
+            if ((zi > uz) != (zj > uz)
+                    && ux < (xj - xi) * (uz - zi) / (zj - zi) + xi) {
+                inside = !inside;
+            }
+
+            // Distance to segment i-j
+            double ex = xj - xi;
+            double ez = zj - zi;
+            double t = ((ux - xi) * ex + (uz - zi) * ez) / (ex * ex + ez * ez);
+            t = Math.clamp(t, 0.0, 1.0);
+
+            double dx = ux - (xi + t * ex);
+            double dz = uz - (zi + t * ez);
+            minDistSq = Math.min(minDistSq, dx * dx + dz * dz);
+        }
+
+        double distance = Math.sqrt(minDistSq);
+        return inside ? distance : -distance;
+    }
+
+    @Override
+    public boolean growsMonotonically() {
+        // A convex polygon containing the origin is star-shaped around it
+        return convex;
+    }
+
+    @Override
+    public String type() {
+        return "polygon";
+    }
+
+    private boolean computeConvex() {
+        int n = xs.length;
+        int sign = 0;
+
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            int k = (i + 2) % n;
+
+            double cross = (xs[j] - xs[i]) * (zs[k] - zs[j]) - (zs[j] - zs[i]) * (xs[k] - xs[j]);
+            if (cross == 0.0) {
+                continue;
+            }
+
+            int s = cross > 0 ? 1 : -1;
+            if (sign == 0) {
+                sign = s;
+            } else if (s != sign) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,166 @@
+package com.borders.shape;
+
+import com.borders.BordersMod;
+import com.borders.border.BorderManager;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enforces non-square border shapes (circle, polygon).
+ *
+ * The vanilla WorldBorder is always a square, so for other shapes:
+ *  - the WorldBorder stays the bounding square (outer hard limit), and
+ *  - Borders enforces the real outline through ContainmentManager's
+ *    movement checks, using the queries in this class.
+ *
+ * To keep those checks cheap, each dimension has a ChunkClassGrid marking
+ * every chunk as fully inside, fully outside or edge. Only players standing
+ * in edge chunks pay for a precise point-in-shape test. Grids are rebuilt
+ * lazily on the first query after a border change, skipping the shape
+ * evaluation for chunks a resize about the same center cannot affect.
+ * Borders wider than ChunkClassGrid.MAX_CELLS chunks are not classified;
+ * every query is then a precise test.
+ *
+ * The current shape is defined by GameState.borderShape / polygonVertices.
+ */
+public class ShapeManager {
+
+    /** Active shape, rebuilt from GameState by reloadShape(). */
+    private static BorderShape shape = SquareShape.INSTANCE;
+
+    /** Latest classification grid per dimension. */
+    private static final Map<ResourceKey<Level>, ChunkClassGrid> GRIDS = new HashMap<>();
+
+    /**
+     * Rebuilds the active shape from GameState.
+     * Call after loading state or changing the shape via /borders shape.
+     *
+     * @throws IllegalArgumentException if the stored polygon is invalid
+     */
+    public static void reloadShape() {
+        String type = BordersMod.STATE.borderShape;
+
+        if ("circle".equals(type)) {
+            shape = CircleShape.INSTANCE;
+        } else if ("polygon".equals(type)) {
+            shape = new PolygonShape(BordersMod.STATE.polygonVertices);
+        } else {
+            shape = SquareShape.INSTANCE;
+        }
+
+        GRIDS.clear();
+    }
+
+    /** Whether the vanilla square is active (no extra enforcement needed). */
+    public static boolean isSquare() {
+        return shape == SquareShape.INSTANCE;
+    }
+
+    /**
+     * Conservative signed distance from (x, z) to the border outline in a level.
+     * Positive inside, negative outside.
+     *
+     * Only edge chunks compute the precise distance. Inside chunks return the
+     * distance to the nearest non-inside chunk, and outside chunks the
+     * distance to their own boundary: lower bounds of the true distance, good
+     * for scheduling checks but not for showing to players
+     * (see exactDistanceToEdge).
+     */
+    public static double distanceToEdge(ServerLevel level, double x, double z) {
+        // The square needs no extra work: the WorldBorder is the outline
+        if (isSquare()) {
+            return level.getWorldBorder().getDistanceToBorder(x, z);
+        }
+
+        ChunkClassGrid grid = gridFor(level);
+
+        int chunkX = (int) Math.floor(x) >> 4;
+        int chunkZ = (int) Math.floor(z) >> 4;
+
+        return switch (grid.classify(chunkX, chunkZ)) {
+            case ChunkClassGrid.INSIDE -> distanceToChunkBoundary(x, z, chunkX, chunkZ)
+                    + (grid.edgeDistance(chunkX, chunkZ) - 1) * 16.0;
+            // Never return -0.0: callers test "< 0" for outside
+            case ChunkClassGrid.OUTSIDE -> -Math.max(distanceToChunkBoundary(x, z, chunkX, chunkZ), 0.001);
+            default -> grid.signedDistance(x, z);
+        };
+    }
+
+    /**
+     * Precise signed distance from (x, z) to the border outline in a level.
+     * Positive inside, negative outside. Costs a full shape evaluation for
+     * circles and polygons, so prefer distanceToEdge when a bound is enough.
+     */
+    public static double exactDistanceToEdge(ServerLevel level, double x, double z) {
+        if (isSquare()) {
+            return level.getWorldBorder().getDistanceToBorder(x, z);
+        }
+        return gridFor(level).signedDistance(x, z);
+    }
+
+    /** Whether (x, z) is inside the border outline of a level. */
+    public static boolean isInside(ServerLevel level, double x, double z) {
+        return distanceToEdge(level, x, z) > 0;
+    }
+
+    /**
+     * Nearest point at least {@code margin} blocks inside the outline,
+     * searched along the line from the player toward the border center.
+     *
+     * For circles this is the exact nearest point; for polygons it is the
+     * point where that line crosses back inside.
+     *
+     * @return {x, z}
+     */
+    public static double[] pullInside(ServerLevel level, double x, double z, double margin) {
+        ChunkClassGrid grid = gridFor(level);
+
+        // Binary search t in [0, 1] on center + t * (p - center)
+        double lo = 0.0;
+        double hi = 1.0;
+        for (int i = 0; i < 24; i++) {
+            double mid = (lo + hi) / 2.0;
+            double px = grid.centerX + (x - grid.centerX) * mid;
+            double pz = grid.centerZ + (z - grid.centerZ) * mid;
+
+            if (grid.signedDistance(px, pz) >= margin) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return new double[] {
+                grid.centerX + (x - grid.centerX) * lo,
+                grid.centerZ + (z - grid.centerZ) * lo
+        };
+    }
+
+    private static ChunkClassGrid gridFor(ServerLevel level) {
+        // GameState geometry, valid even before the level's WorldBorder is materialized
+        BorderManager.Bounds bounds = BorderManager.targetBounds(level.dimension());
+        double centerX = (bounds.minX() + bounds.maxX()) / 2.0;
+        double centerZ = (bounds.minZ() + bounds.maxZ()) / 2.0;
+        double half = (bounds.maxX() - bounds.minX()) / 2.0;
+
+        ChunkClassGrid grid = GRIDS.get(level.dimension());
+        if (grid == null || !grid.matches(shape, centerX, centerZ, half)) {
+            grid = ChunkClassGrid.build(shape, centerX, centerZ, half, grid);
+            GRIDS.put(level.dimension(), grid);
+        }
+        return grid;
+    }
+
+    private static double distanceToChunkBoundary(double x, double z, int chunkX, int chunkZ) {
+        double localX = x - chunkX * 16.0;
+        double localZ = z - chunkZ * 16.0;
+        return Math.min(
+                Math.min(localX, 16.0 - localX),
+                Math.min(localZ, 16.0 - localZ)
+        );
+    }
+}
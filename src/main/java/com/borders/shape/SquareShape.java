@@ -0,0 +1,27 @@
+package com.borders.shape;
+
+/**
+ * The vanilla square border. Enforcement is left entirely to the
+ * WorldBorder, so this is only used for type lookups and completeness.
+ */
+public final class SquareShape implements BorderShape {
+
+    public static final SquareShape INSTANCE = new SquareShape();
+
+    private SquareShape() {}
+
+    @Override
+    public double signedDistance(double ux, double uz) {
+        return 1.0 - Math.max(Math.abs(ux), Math.abs(uz));
+    }
+
+    @Override
+    public boolean growsMonotonically() {
+        return true;
+    }
+
+    @Override
+    public String type() {
+        return "square";
+    }
+}
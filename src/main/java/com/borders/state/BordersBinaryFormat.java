@@ -0,0 +1,431 @@
+package com.borders.state;
+
+import com.borders.history.BorderHistory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact, versioned binary encoding of BordersSavedData.
+ *
+ * Layout (all integers are unsigned LEB128 varints unless noted):
+ *
+ *   int   MAGIC ("BRDS", fixed 4 bytes)
+ *   VERSION
+ *   string table: count, then per string: byte length + UTF-8 bytes
+ *   scalar settings and flags (doubles are fixed 8 bytes)
+ *   shape: string index, polygon vertex count + doubles
+ *   dimension settings: count, then (dimension string index, scale, offsetX, offsetZ)
+ *   discovered items: count, then item-id string indices
+ *   name-keyed scores: count, then (player string index, zig-zag score)
+ *   history: count, then (tick, delta, size, source byte, zig-zag player index)
+ *   checkpoint budget in MiB (version 2+)
+ *   UUID scores (version 3+): count, then (UUID as two fixed 8-byte longs,
+ *     zig-zag name string index or -1, zig-zag score)
+ *
+ * Version 3 snapshots only carry name-keyed scores that older saves left
+ * unclaimed (see DiscoveryScores).
+ *
+ * Every string (item ids, player names, dimension ids, the shape name) is
+ * stored once in the table and referenced by index, so a game with
+ * thousands of "minecraft:..." ids costs one or two bytes per reference.
+ *
+ * Readers reject unknown magic or newer versions with an IOException.
+ */
+public final class BordersBinaryFormat {
+
+    private static final int MAGIC = 0x42524453; // "BRDS"
+    private static final int VERSION = 3;
+
+    private static final int FLAG_GAME_ACTIVE = 1;
+    private static final int FLAG_FAILSAFE_ENABLED = 1 << 1;
+    private static final int FLAG_DEATH_SHRINK_ENABLED = 1 << 2;
+    private static final int FLAG_BORDER_INITIALIZED = 1 << 3;
+
+    private BordersBinaryFormat() {
+    }
+
+    // ------------------------------------------------------------------------
+    // Encoding
+    // ------------------------------------------------------------------------
+
+    public static byte[] encode(BordersSavedData data) {
+        StringTable strings = new StringTable();
+
+        // Intern every string first, so the table can be written up front
+        int shapeIndex = strings.intern(data.borderShape != null ? data.borderShape : "square");
+
+        List<String> items = new ArrayList<>(data.obtainedItemIds);
+        int[] itemIndices = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            itemIndices[i] = strings.intern(items.get(i));
+        }
+
+        Map<String, DimensionBorderSettings> dimensions =
+                data.dimensionSettings != null ? data.dimensionSettings : Map.of();
+        Map<String, Integer> scores = data.playerScores != null ? data.playerScores : Map.of();
+        for (String dimension : dimensions.keySet()) {
+            strings.intern(dimension);
+        }
+        for (String player : scores.keySet()) {
+            strings.intern(player);
+        }
+        Map<UUID, Integer> uuidScores = data.scores != null ? data.scores : Map.of();
+        Map<UUID, String> names = data.playerNames != null ? data.playerNames : Map.of();
+        for (String name : names.values()) {
+            strings.intern(name);
+        }
+
+        BorderHistory.Snapshot history = data.borderHistory;
+        int historySize = history != null && history.ticks != null ? history.ticks.length : 0;
+        int[] historyPlayers = new int[historySize];
+        for (int i = 0; i < historySize; i++) {
+            int player = history.players[i];
+            historyPlayers[i] = player >= 0 && history.playerNames != null && player < history.playerNames.size()
+                    ? strings.intern(history.playerNames.get(player))
+                    : -1;
+        }
+
+        Buffer out = new Buffer(256 + items.size() * 4 + historySize * 24 + uuidScores.size() * 20);
+        out.buffer.putInt(MAGIC);
+        out.putVarInt(VERSION);
+
+        // String table
+        out.putVarInt(strings.list.size());
+        for (String value : strings.list) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.putVarInt(bytes.length);
+            out.ensure(bytes.length).put(bytes);
+        }
+
+        // Scalars
+        int flags = (data.gameActive ? FLAG_GAME_ACTIVE : 0)
+                | (data.failsafeEnabled ? FLAG_FAILSAFE_ENABLED : 0)
+                | (data.deathShrinkEnabled ? FLAG_DEATH_SHRINK_ENABLED : 0)
+                | (data.borderInitialized ? FLAG_BORDER_INITIALIZED : 0);
+        out.putVarInt(flags);
+        out.putDouble(data.currentBorderSize);
+        out.putDouble(data.borderCenterX);
+        out.putDouble(data.borderCenterZ);
+        out.putVarLong(data.borderFailsafeDelayTicks);
+        out.putVarInt(data.discoveryGrowthBlocksPerSide);
+        out.putVarInt(data.deathShrinkBlocksPerSide);
+        out.putVarInt(data.deathWindowTicks);
+        out.putVarInt(data.borderWarningDistance);
+        out.putVarInt(data.ignoredDiscoveries);
+        out.putVarLong(data.journalSeq);
+
+        // Shape
+        out.putVarInt(shapeIndex);
+        double[] vertices = data.polygonVertices != null ? data.polygonVertices : new double[0];
+        out.putVarInt(vertices.length);
+        for (double value : vertices) {
+            out.putDouble(value);
+        }
+
+        // Per-dimension settings
+        out.putVarInt(dimensions.size());
+        for (Map.Entry<String, DimensionBorderSettings> entry : dimensions.entrySet()) {
+            out.putVarInt(strings.indexOf(entry.getKey()));
+            out.putDouble(entry.getValue().scale);
+            out.putDouble(entry.getValue().offsetX);
+            out.putDouble(entry.getValue().offsetZ);
+        }
+
+        // Discovered items
+        out.putVarInt(itemIndices.length);
+        for (int index : itemIndices) {
+            out.putVarInt(index);
+        }
+
+        // Scores
+        out.putVarInt(scores.size());
+        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+            out.putVarInt(strings.indexOf(entry.getKey()));
+            out.putVarInt(zigZag(entry.getValue()));
+        }
+
+        // Border history, oldest first
+        out.putVarInt(historySize);
+        for (int i = 0; i < historySize; i++) {
+            out.putVarLong(history.ticks[i]);
+            out.putDouble(history.deltas[i]);
+            out.putDouble(history.sizes[i]);
+            out.ensure(1).put(history.sources[i]);
+            out.putVarInt(zigZag(historyPlayers[i]));
+        }
+
+        // Version 2
+        out.putVarInt(data.checkpointBudgetMb);
+
+        // Version 3
+        out.putVarInt(uuidScores.size());
+        for (Map.Entry<UUID, Integer> entry : uuidScores.entrySet()) {
+            out.putLong(entry.getKey().getMostSignificantBits());
+            out.putLong(entry.getKey().getLeastSignificantBits());
+            String name = names.get(entry.getKey());
+            out.putVarInt(zigZag(name != null ? strings.indexOf(name) : -1));
+            out.putVarInt(zigZag(entry.getValue()));
+        }
+
+        return out.toByteArray();
+    }
+
+    // ------------------------------------------------------------------------
+    // Decoding
+    // ------------------------------------------------------------------------
+
+    /**
+     * Decodes a snapshot from {@code in} (typically a memory-mapped file).
+     *
+     * @throws IOException if the data isn't a Borders snapshot, is from a
+     *                     newer version, or is truncated
+     */
+    public static BordersSavedData decode(ByteBuffer in) throws IOException {
+        try {
+            if (in.remaining() < 4 || in.getInt() != MAGIC) {
+                throw new IOException("Not a Borders state file");
+            }
+            int version = getVarInt(in);
+            if (version > VERSION) {
+                throw new IOException("Borders state file version " + version + " is newer than supported (" + VERSION + ")");
+            }
+
+            // Strings are decoded straight out of the buffer (no copy for heap buffers)
+            String[] strings = new String[getCount(in, 1)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = getString(in, getCount(in, 1));
+            }
+
+            BordersSavedData data = new BordersSavedData();
+
+            int flags = getVarInt(in);
+            data.gameActive = (flags & FLAG_GAME_ACTIVE) != 0;
+            data.failsafeEnabled = (flags & FLAG_FAILSAFE_ENABLED) != 0;
+            data.deathShrinkEnabled = (flags & FLAG_DEATH_SHRINK_ENABLED) != 0;
+            data.borderInitialized = (flags & FLAG_BORDER_INITIALIZED) != 0;
+            data.currentBorderSize = in.getDouble();
+            data.borderCenterX = in.getDouble();
+            data.borderCenterZ = in.getDouble();
+            data.borderFailsafeDelayTicks = getVarLong(in);
+            data.discoveryGrowthBlocksPerSide = getVarInt(in);
+            data.deathShrinkBlocksPerSide = getVarInt(in);
+            data.deathWindowTicks = getVarInt(in);
+            data.borderWarningDistance = getVarInt(in);
+            data.ignoredDiscoveries = getVarInt(in);
+            data.journalSeq = getVarLong(in);
+
+            data.borderShape = strings[getVarInt(in)];
+            int vertexCount = getCount(in, 8);
+            if (vertexCount > 0) {
+                data.polygonVertices = new double[vertexCount];
+                for (int i = 0; i < vertexCount; i++) {
+                    data.polygonVertices[i] = in.getDouble();
+                }
+            }
+
+            int dimensionCount = getCount(in, 1 + 3 * 8);
+            for (int i = 0; i < dimensionCount; i++) {
+                String dimension = strings[getVarInt(in)];
+                DimensionBorderSettings settings = new DimensionBorderSettings();
+                settings.scale = in.getDouble();
+                settings.offsetX = in.getDouble();
+                settings.offsetZ = in.getDouble();
+                data.dimensionSettings.put(dimension, settings);
+            }
+
+            int itemCount = getCount(in, 1);
+            data.obtainedItemIds = new HashSet<>(itemCount * 4 / 3 + 1);
+            for (int i = 0; i < itemCount; i++) {
+                data.obtainedItemIds.add(strings[getVarInt(in)]);
+            }
+
+            int scoreCount = getCount(in, 2);
+            data.playerScores = new HashMap<>(scoreCount * 4 / 3 + 1);
+            for (int i = 0; i < scoreCount; i++) {
+                String player = strings[getVarInt(in)];
+                data.playerScores.put(player, unZigZag(getVarInt(in)));
+            }
+
+            int historySize = getCount(in, 1 + 2 * 8 + 1 + 1);
+            BorderHistory.Snapshot history = new BorderHistory.Snapshot();
+            history.ticks = new long[historySize];
+            history.deltas = new double[historySize];
+            history.sizes = new double[historySize];
+            history.sources = new byte[historySize];
+            history.players = new int[historySize];
+            history.playerNames = new ArrayList<>();
+            Map<String, Integer> playerIndex = new HashMap<>();
+            for (int i = 0; i < historySize; i++) {
+                history.ticks[i] = getVarLong(in);
+                history.deltas[i] = in.getDouble();
+                history.sizes[i] = in.getDouble();
+                history.sources[i] = in.get();
+
+                int player = unZigZag(getVarInt(in));
+                if (player < 0) {
+                    history.players[i] = BorderHistory.NO_PLAYER;
+                } else {
+                    history.players[i] = playerIndex.computeIfAbsent(strings[player], name -> {
+                        history.playerNames.add(name);
+                        return history.playerNames.size() - 1;
+                    });
+                }
+            }
+            data.borderHistory = history;
+
+            if (version >= 2) {
+                data.checkpointBudgetMb = getVarInt(in);
+            }
+
+            if (version >= 3) {
+                int uuidCount = getCount(in, 2 * 8 + 1 + 1);
+                data.scores = new HashMap<>(uuidCount * 4 / 3 + 1);
+                data.playerNames = new HashMap<>(uuidCount * 4 / 3 + 1);
+                for (int i = 0; i < uuidCount; i++) {
+                    UUID player = new UUID(in.getLong(), in.getLong());
+                    int name = unZigZag(getVarInt(in));
+                    if (name >= 0) {
+                        data.playerNames.put(player, strings[name]);
+                    }
+                    data.scores.put(player, unZigZag(getVarInt(in)));
+                }
+            }
+
+            return data;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt Borders state file", e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------------------
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a length or element count and checks it against the bytes left,
+     * so corrupt data fails with an IOException instead of a negative or
+     * huge allocation.
+     *
+     * @param minBytesPerElement Smallest encoded size of one element
+     */
+    private static int getCount(ByteBuffer in, int minBytesPerElement) throws IOException {
+        long count = getVarLong(in);
+        if (count < 0 || count > in.remaining() / minBytesPerElement) {
+            throw new IOException("Corrupt Borders state file (length " + count
+                    + " with " + in.remaining() + " bytes left)");
+        }
+        return (int) count;
+    }
+
+    private static String getString(ByteBuffer in, int length) {
+        if (in.hasArray()) {
+            int offset = in.arrayOffset() + in.position();
+            in.position(in.position() + length);
+            return new String(in.array(), offset, length, StandardCharsets.UTF_8);
+        }
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int getVarInt(ByteBuffer in) throws IOException {
+        return (int) getVarLong(in);
+    }
+
+    private static long getVarLong(ByteBuffer in) throws IOException {
+        long result = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /** Strings in first-seen order, with a reverse index. */
+    private static final class StringTable {
+        final List<String> list = new ArrayList<>();
+        final Map<String, Integer> index = new HashMap<>();
+
+        int intern(String value) {
+            Integer existing = index.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            list.add(value);
+            index.put(value, list.size() - 1);
+            return list.size() - 1;
+        }
+
+        int indexOf(String value) {
+            return index.get(value);
+        }
+    }
+
+    /** Growable heap ByteBuffer. */
+    private static final class Buffer {
+        ByteBuffer buffer;
+
+        Buffer(int initialCapacity) {
+            buffer = ByteBuffer.allocate(Math.max(64, initialCapacity));
+        }
+
+        ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            return buffer;
+        }
+
+        void putVarInt(int value) {
+            putVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putDouble(double value) {
+            ensure(8).putDouble(value);
+        }
+
+        void putLong(long value) {
+            ensure(8).putLong(value);
+        }
+
+        byte[] toByteArray() {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.flip();
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+}
@@ -1,31 +1,48 @@
 package com.borders.state;
 
+import com.borders.BordersMod;
+import com.borders.history.BorderHistory;
+import com.borders.journal.JournalManager;
 import com.borders.scoreboard.ScoreboardManager;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import net.fabricmc.loader.api.FabricLoader;
-import net.minecraft.core.Holder;
-import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.Item;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 /**
- * Simple JSON-based persistence snapshot for Borders.
+ * Persistence snapshot for Borders.
  *
- * This does NOT use Minecraft's SavedData / NBT APIs.
- * It just mirrors the important fields from GameState
- * and stores them in config/borders_state.json.
+ * Mirrors the important fields from GameState. Encoded with
+ * BordersBinaryFormat and stored per world in BordersWorldData
+ * (<world>/data/borders.dat), which vanilla saves together with chunks.
+ *
+ * <world>/borders/borders_state.json is only used for explicit human
+ * editing via /borders export json and /borders import json.
+ *
+ * Older versions kept one global save in the config folder
+ * (borders_state.bin, or borders_state.json before that). A world without
+ * Borders data imports it once, then the files are renamed to *.migrated.
  */
 public class BordersSavedData {
 
@@ -49,6 +66,15 @@ public class BordersSavedData {
     /** How many blocks per side the border shrinks on death. */
     public int deathShrinkBlocksPerSide = 5;
 
+    /** Ticks over which simultaneous deaths are combined into one shrink. */
+    public int deathWindowTicks = 1;
+
+    /** Action-bar warning distance from the edge (0 = off). */
+    public int borderWarningDistance = 16;
+
+    /** Disk budget (MiB) for rollback checkpoints. */
+    public int checkpointBudgetMb = 16;
+
     /** How many blocks per side the border grows per new item. */
     public int discoveryGrowthBlocksPerSide = 1;
 
@@ -62,19 +88,40 @@ public class BordersSavedData {
     public double borderCenterX = 0.0;
     public double borderCenterZ = 0.0;
 
+    /** Border outline type: "square", "circle" or "polygon". */
+    public String borderShape = "square";
+
+    /** Unit-space polygon vertices {x0, z0, x1, z1, ...} (polygon shape only). */
+    public double[] polygonVertices = null;
+
+    /** Seq of the last journal record already contained in this snapshot. */
+    public long journalSeq = 0L;
+
+    /** Recent border size changes, oldest first. */
+    public BorderHistory.Snapshot borderHistory = null;
+
+    /** Per-dimension border scale/offset, keyed by dimension id. */
+    public Map<String, DimensionBorderSettings> dimensionSettings = new HashMap<>();
+
     /**
      * IDs of items that have already been discovered.
      * Stored as registry names, e.g. "minecraft:stone".
      */
     public Set<String> obtainedItemIds = new HashSet<>();
 
+    /** Discovery scores by player UUID (see DiscoveryScores). */
+    public Map<UUID, Integer> scores = new HashMap<>();
+
+    /** Last known name of each player in {@code scores}, for display. */
+    public Map<UUID, String> playerNames = new HashMap<>();
+
     /**
-     * Snapshot of player discovery scores (player name -> score).
-     * This mirrors the scoreboard for backup / restore.
+     * Name-keyed scores (player name -> score) from saves before UUID keys,
+     * not yet claimed by their player. Empty for new games.
      */
     public Map<String, Integer> playerScores = new HashMap<>();
 
-    // --------- JSON + file handling ---------
+    // --------- Files ---------
 
     private static final Gson GSON = new GsonBuilder()
             .setPrettyPrinting()
@@ -82,17 +129,31 @@ public class BordersSavedData {
 
     private static final String FILE_NAME = "borders_state.json";
 
-    private static Path getSavePath() {
+    private static final String BINARY_FILE_NAME = "borders_state.bin";
+
+    /** Suffix given to the old global save files once they were moved into a world. */
+    private static final String MIGRATED_SUFFIX = ".migrated";
+
+    private static Path getJsonPath(MinecraftServer server) {
+        return BordersWorldData.getDirectory(server).resolve(FILE_NAME);
+    }
+
+    private static Path getLegacyJsonPath() {
         return FabricLoader.getInstance()
                 .getConfigDir()
                 .resolve(FILE_NAME);
     }
 
+    private static Path getLegacyBinaryPath() {
+        return FabricLoader.getInstance()
+                .getConfigDir()
+                .resolve(BINARY_FILE_NAME);
+    }
+
     // --------- Mapping between GameState and this snapshot ---------
 
     /**
-     * Basic snapshot from GameState only (no scoreboard).
-     * Kept for backwards compatibility.
+     * Snapshot of GameState, including the discovery scores.
      */
     public static BordersSavedData fromGameState(GameState state) {
         BordersSavedData data = new BordersSavedData();
@@ -104,7 +165,10 @@ public class BordersSavedData {
 
         data.deathShrinkEnabled = state.deathShrinkEnabled;
         data.deathShrinkBlocksPerSide = state.deathShrinkBlocksPerSide;
+        data.deathWindowTicks = state.deathWindowTicks;
         data.discoveryGrowthBlocksPerSide = state.discoveryGrowthBlocksPerSide;
+        data.borderWarningDistance = state.borderWarningDistance;
+        data.checkpointBudgetMb = state.checkpointBudgetMb;
 
         data.ignoredDiscoveries = state.ignoredDiscoveries;
 
@@ -112,36 +176,36 @@ public class BordersSavedData {
         data.borderCenterX = state.borderCenterX;
         data.borderCenterZ = state.borderCenterZ;
 
+        // Deep copy: the snapshot may be serialized off-thread while commands edit settings
+        for (Map.Entry<String, DimensionBorderSettings> entry : state.DIMENSION_SETTINGS.entrySet()) {
+            data.dimensionSettings.put(entry.getKey(), entry.getValue().copy());
+        }
+
+        data.borderHistory = state.BORDER_HISTORY.toSnapshot();
+
+        // Everything journaled so far is reflected in GameState (same thread)
+        data.journalSeq = JournalManager.lastSeq();
+
+        data.borderShape = state.borderShape;
+        data.polygonVertices = state.polygonVertices != null ? state.polygonVertices.clone() : null;
+
         // Mirror discovered items as string IDs
-        data.obtainedItemIds.clear();
+        data.obtainedItemIds = new HashSet<>(state.OBTAINED_ITEMS.size() * 4 / 3 + 1);
         for (Item item : state.OBTAINED_ITEMS) {
-            ResourceLocation id = BuiltInRegistries.ITEM.getKey(item);
+            String id = ItemIdTable.idOf(item);
             if (id != null) {
-                data.obtainedItemIds.add(id.toString());
+                data.obtainedItemIds.add(id);
             }
         }
 
-        // playerScores is left as-is here (empty) – use the overload below
-        return data;
-    }
-
-    /**
-     * Snapshot from GameState + live scoreboard.
-     * Use this if you want JSON to also contain player scores.
-     */
-    public static BordersSavedData fromGameState(GameState state, MinecraftServer server) {
-        BordersSavedData data = fromGameState(state);
-
-        // Export scoreboard scores into the snapshot
-        data.playerScores.clear();
-        data.playerScores.putAll(ScoreboardManager.exportPlayerScores(server));
+        // Copy: the snapshot may be serialized off-thread while players score
+        state.DISCOVERY_SCORES.copyTo(data.scores, data.playerNames, data.playerScores);
 
         return data;
     }
 
     /**
-     * Apply core state (no scoreboard) back into GameState.
-     * Kept for backwards compatibility.
+     * Apply this snapshot back into GameState, including the discovery scores.
      */
     public void applyToGameState(GameState state) {
         state.currentBorderSize = this.currentBorderSize;
@@ -151,7 +215,10 @@ public class BordersSavedData {
 
         state.deathShrinkEnabled = this.deathShrinkEnabled;
         state.deathShrinkBlocksPerSide = this.deathShrinkBlocksPerSide;
+        state.deathWindowTicks = Math.max(1, this.deathWindowTicks);
         state.discoveryGrowthBlocksPerSide = this.discoveryGrowthBlocksPerSide;
+        state.borderWarningDistance = this.borderWarningDistance;
+        state.checkpointBudgetMb = Math.max(1, this.checkpointBudgetMb);
 
         state.ignoredDiscoveries = this.ignoredDiscoveries;
 
@@ -159,62 +226,175 @@ public class BordersSavedData {
         state.borderCenterX = this.borderCenterX;
         state.borderCenterZ = this.borderCenterZ;
 
-        // Rebuild the discovered items set from stored IDs
-        state.OBTAINED_ITEMS.clear();
-        for (String idString : this.obtainedItemIds) {
-            ResourceLocation id = ResourceLocation.tryParse(idString);
-            if (id == null) {
-                continue;
-            }
+        // Older saves have no per-dimension settings
+        state.DIMENSION_SETTINGS.clear();
+        if (this.dimensionSettings != null) {
+            state.DIMENSION_SETTINGS.putAll(this.dimensionSettings);
+        }
 
-            // 1.21.x: get() returns Optional<Holder.Reference<Item>>
-            var optRef = BuiltInRegistries.ITEM.get(id);
-            if (optRef.isPresent()) {
-                Holder.Reference<Item> ref = optRef.get();
-                Item item = ref.value();
-                state.OBTAINED_ITEMS.add(item);
-            }
+        // Older saves have no history (load clears the ring for null)
+        state.BORDER_HISTORY.load(this.borderHistory);
+
+        // Older saves have no shape (square)
+        state.borderShape = this.borderShape != null ? this.borderShape : "square";
+        state.polygonVertices = this.polygonVertices;
+
+        // Rebuild the discovered items set from stored IDs in one pass over
+        // the prebuilt id table; ids of removed items are dropped
+        List<Item> items = new ArrayList<>(this.obtainedItemIds.size());
+        List<String> unknown = ItemIdTable.resolveAll(this.obtainedItemIds, items);
+        if (!unknown.isEmpty()) {
+            BordersMod.LOGGER.warn("[Borders] Skipped {} discovered item id(s) that are not registered: {}",
+                    unknown.size(), unknown);
         }
+        state.OBTAINED_ITEMS.clear();
+        state.OBTAINED_ITEMS.addAll(items);
+
+        // Older saves only have name-keyed scores (claimed on join)
+        state.DISCOVERY_SCORES.load(this.scores, this.playerNames, this.playerScores);
     }
 
     /**
-     * Apply core state + restore scoreboard from JSON.
-     * Call this if you want player scores restored.
+     * Apply state, then let online players claim name-keyed scores and
+     * redraw the sidebar ranking.
      */
     public void applyToGameState(GameState state, MinecraftServer server) {
-        // First restore the core game state
         applyToGameState(state);
 
-        // Then restore scoreboard scores if we have any
-        if (server != null && playerScores != null && !playerScores.isEmpty()) {
-            ScoreboardManager.importPlayerScores(server, playerScores);
+        if (server != null) {
+            ScoreboardManager.onScoresLoaded(server);
         }
     }
 
     // --------- Disk I/O ---------
 
-    public void saveToDisk() {
-        Path path = getSavePath();
+    /** Encodes this snapshot in the binary format. */
+    public byte[] toBytes() {
+        return BordersBinaryFormat.encode(this);
+    }
+
+    /** Serializes this snapshot to pretty-printed UTF-8 JSON. */
+    public byte[] toJsonBytes() {
+        return GSON.toJson(this).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces {@code path} with {@code bytes} so that a crash at any point
+     * leaves either the old or the new file, never a truncated one:
+     *  1. write to <file>.tmp through a FileChannel
+     *  2. fsync the temp file
+     *  3. atomically move it over the target
+     */
+    public static void writeAtomically(Path path, byte[] bytes) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.createDirectories(path.getParent());
+
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
         try {
-            Files.createDirectories(path.getParent());
-            try (Writer writer = Files.newBufferedWriter(path)) {
-                GSON.toJson(this, writer);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Some filesystems can't rename atomically; still never leave a partial file
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Loads this world's snapshot from its BordersWorldData.
+     *
+     * A world without Borders data yet falls back ONCE to the old global
+     * save in the config folder (see loadLegacy / finishLegacyMigration).
+     *
+     * @return the snapshot, or null if neither exists
+     */
+    public static BordersSavedData load(MinecraftServer server) {
+        BordersWorldData worldData = BordersWorldData.get(server);
+        if (!worldData.isEmpty()) {
+            try {
+                return worldData.load();
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
             }
+        }
+
+        return loadLegacy();
+    }
+
+    /** Whether the config folder still holds a global save from before per-world state. */
+    public static boolean hasLegacySave() {
+        return Files.exists(getLegacyBinaryPath()) || Files.exists(getLegacyJsonPath());
+    }
+
+    /**
+     * Reads the old global save: config/borders_state.bin (memory-mapped),
+     * or config/borders_state.json from versions before the binary format.
+     */
+    private static BordersSavedData loadLegacy() {
+        Path path = getLegacyBinaryPath();
+        if (!Files.exists(path)) {
+            return readJson(getLegacyJsonPath());
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return BordersBinaryFormat.decode(buffer);
         } catch (IOException e) {
-            // If something goes wrong, log it, but don't crash the server.
             e.printStackTrace();
+            return null;
         }
     }
 
-    public static BordersSavedData loadFromDisk() {
-        Path path = getSavePath();
+    /**
+     * Renames the old global save files to *.migrated, so no other world
+     * imports them. Only call once the migrated state is on disk in the world.
+     */
+    public static void finishLegacyMigration() {
+        for (Path path : new Path[] { getLegacyBinaryPath(), getLegacyJsonPath() }) {
+            try {
+                if (Files.exists(path)) {
+                    Files.move(path, path.resolveSibling(path.getFileName() + MIGRATED_SUFFIX),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // --------- Human-editable JSON (/borders export|import json) ---------
+
+    /**
+     * Writes this snapshot to <world>/borders/borders_state.json.
+     *
+     * @return the written file
+     */
+    public Path exportJson(MinecraftServer server) throws IOException {
+        Path path = getJsonPath(server);
+        writeAtomically(path, toJsonBytes());
+        return path;
+    }
+
+    /** Reads <world>/borders/borders_state.json, or null if it is missing or unreadable. */
+    public static BordersSavedData importJson(MinecraftServer server) {
+        return readJson(getJsonPath(server));
+    }
+
+    private static BordersSavedData readJson(Path path) {
         if (!Files.exists(path)) {
             return null;
         }
 
         try (Reader reader = Files.newBufferedReader(path)) {
             return GSON.fromJson(reader, BordersSavedData.class);
-        } catch (IOException e) {
+        } catch (IOException | JsonParseException e) {
             e.printStackTrace();
             return null;
         }
@@ -0,0 +1,99 @@
+package com.borders.state;
+
+import com.borders.profile.ProfileManager;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.level.saveddata.SavedDataType;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Per-world home of the Borders state: <world>/data/borders.dat.
+ *
+ * Holds the binary snapshot (see BordersBinaryFormat) of the active
+ * profile as a single byte array tag, plus the profile's name, so it is
+ * written by the vanilla save pipeline together with chunks and travels
+ * with world backups and copies.
+ *
+ * The payload is only replaced (and the data marked dirty) when GameState
+ * was marked dirty (see PersistenceManager), so an idle world never
+ * rewrites it.
+ *
+ * Other per-world Borders files (journal, JSON export) live next to it in
+ * <world>/borders/.
+ */
+public class BordersWorldData extends SavedData {
+
+    private static final Codec<BordersWorldData> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            Codec.STRING.optionalFieldOf("profile", ProfileManager.DEFAULT_PROFILE).forGetter(data -> data.profile),
+            Codec.BYTE_BUFFER.fieldOf("state").forGetter(data -> ByteBuffer.wrap(data.payload))
+    ).apply(instance, BordersWorldData::new));
+
+    private static final SavedDataType<BordersWorldData> TYPE =
+            new SavedDataType<>("borders", BordersWorldData::new, CODEC, null);
+
+    /** Name of the active profile the payload belongs to. */
+    private String profile = ProfileManager.DEFAULT_PROFILE;
+
+    /** Encoded state; empty until the first save of a new (or unmigrated) world. */
+    private byte[] payload = new byte[0];
+
+    public BordersWorldData() {
+    }
+
+    private BordersWorldData(String profile, ByteBuffer buffer) {
+        this.profile = profile;
+        this.payload = new byte[buffer.remaining()];
+        buffer.get(this.payload);
+    }
+
+    /** The world's Borders data (stored with the overworld), created empty if missing. */
+    public static BordersWorldData get(MinecraftServer server) {
+        return server.overworld().getDataStorage().computeIfAbsent(TYPE);
+    }
+
+    /** <world>/borders/, for Borders files that aren't SavedData. */
+    public static Path getDirectory(MinecraftServer server) {
+        return server.getWorldPath(LevelResource.ROOT).resolve("borders").normalize();
+    }
+
+    /**
+     * Writes every dirty SavedData of the overworld off-thread (vanilla IO pool).
+     *
+     * @return completes once the files are on disk
+     */
+    public static CompletableFuture<?> scheduleSave(MinecraftServer server) {
+        return server.overworld().getDataStorage().scheduleSave();
+    }
+
+    /** Whether this world has any saved Borders state yet. */
+    public boolean isEmpty() {
+        return payload.length == 0;
+    }
+
+    /** Name of the active profile (see ProfileManager). */
+    public String getProfile() {
+        return profile;
+    }
+
+    /** Replaces the payload and marks the data dirty, so the next world save writes it. */
+    public void store(String profile, byte[] bytes) {
+        this.profile = profile;
+        payload = bytes;
+        setDirty();
+    }
+
+    /** Decodes the stored snapshot, or null if the world has none yet. */
+    public BordersSavedData load() throws IOException {
+        if (isEmpty()) {
+            return null;
+        }
+        return BordersBinaryFormat.decode(ByteBuffer.wrap(payload));
+    }
+}
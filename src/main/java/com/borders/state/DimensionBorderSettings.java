@@ -0,0 +1,38 @@
+package com.borders.state;
+
+/**
+ * Per-dimension border geometry, relative to the Overworld border in GameState.
+ *
+ * For a dimension with these settings:
+ *  - size   = currentBorderSize * scale
+ *  - center = borderCenter * scale + offset
+ *
+ * Example: scale = 0.125 puts the Nether border over the same area a Nether
+ * portal network would map to (1 Nether block = 8 Overworld blocks).
+ *
+ * Dimensions without an entry use the defaults (scale 1, no offset),
+ * i.e. they mirror the Overworld border exactly.
+ */
+public class DimensionBorderSettings {
+
+    /** Multiplier applied to both border size and center. */
+    public double scale = 1.0;
+
+    /** Extra X offset added to the scaled center (in this dimension's blocks). */
+    public double offsetX = 0.0;
+
+    /** Extra Z offset added to the scaled center (in this dimension's blocks). */
+    public double offsetZ = 0.0;
+
+    /** Independent copy (commands edit settings in place). */
+    public DimensionBorderSettings copy() {
+        DimensionBorderSettings copy = new DimensionBorderSettings();
+        copy.scale = scale;
+        copy.offsetX = offsetX;
+        copy.offsetZ = offsetZ;
+        return copy;
+    }
+
+    /** Default geometry: identical to the Overworld border. */
+    public static final DimensionBorderSettings DEFAULT = new DimensionBorderSettings();
+}
@@ -1,5 +1,8 @@
 package com.borders.state;
 
+import com.borders.history.BorderHistory;
+import com.borders.profile.ProfileManager;
+import com.borders.scoreboard.DiscoveryScores;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.item.Item;
 
@@ -54,6 +57,48 @@ public class GameState {
     /** Cached border center Z coordinate (used for joins and reset). */
     public double borderCenterZ = 0.0;
 
+    /**
+     * Per-dimension border geometry (scale + offset), keyed by dimension id
+     * such as "minecraft:the_nether". Missing dimensions mirror the Overworld.
+     *
+     * Controlled via /borders dimension <dimension> scale|offset|clear.
+     */
+    public final Map<String, DimensionBorderSettings> DIMENSION_SETTINGS = new HashMap<>();
+
+    /**
+     * Border outline: "square" (vanilla), "circle" or "polygon".
+     * Non-square shapes are enforced by Borders inside the vanilla square.
+     */
+    public String borderShape = "square";
+
+    /**
+     * Polygon vertices in unit space {x0, z0, x1, z1, ...}, each within -1..1,
+     * scaled by half the border size. Only used when borderShape = "polygon".
+     */
+    public double[] polygonVertices = null;
+
+    /** Number of border size changes kept in BORDER_HISTORY. */
+    public static final int BORDER_HISTORY_CAPACITY = 256;
+
+    /**
+     * Ring buffer of the most recent border size changes.
+     * Shown by /borders history and reverted by /borders undo.
+     */
+    public final BorderHistory BORDER_HISTORY = new BorderHistory(BORDER_HISTORY_CAPACITY);
+
+    /**
+     * Discovery scores by player UUID, with a name cache and the ranking.
+     * Rendered by ScoreboardManager, listed by /borders top.
+     */
+    public final DiscoveryScores DISCOVERY_SCORES = new DiscoveryScores();
+
+    /**
+     * Name of the profile (season / event game) this state belongs to.
+     * Only the active profile is held in memory; the others are stored in
+     * <world>/borders/profiles/. Switched via /borders profile switch <name>.
+     */
+    public String activeProfile = ProfileManager.DEFAULT_PROFILE;
+
     // Number of future unique discoveries to ignore for border growth & scores.
     // Items will STILL be added to OBTAINED_ITEMS while this is > 0.
     public int ignoredDiscoveries = 0;
@@ -72,6 +117,13 @@ public class GameState {
     /** Global tick counter (incremented every server tick). */
     public long globalTick = 0L;
 
+    /**
+     * True while a staged /borders reset is running.
+     * Inventory scanning, the failsafe and death shrink are all paused,
+     * so no discovery can be counted mid-reset.
+     */
+    public boolean discoveryFrozen = false;
+
     /** Tick value at which the last new item was discovered. */
     public long lastDiscoveryTick = 0L;
 
@@ -108,4 +160,31 @@ public class GameState {
     /** How many blocks per side the border shrinks when a player dies. */
     public int deathShrinkBlocksPerSide = 5;
 
+    /**
+     * Deaths within this many ticks of the first one are combined into a
+     * single shrink (and a single message). Default: 1 tick.
+     * Controlled via /borders setdeathwindow <ticks>.
+     */
+    public int deathWindowTicks = 1;
+
+    // ------------------------------------------------------------------------
+    // Border proximity warnings
+    // ------------------------------------------------------------------------
+
+    /**
+     * Distance (in blocks) from the edge at which players get an action-bar warning.
+     * 0 disables warnings. Controlled via /borders setwarning <blocks>.
+     */
+    public int borderWarningDistance = 16;
+
+    // ------------------------------------------------------------------------
+    // Checkpoints (/borders rollback)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Disk budget (MiB) for the active profile's checkpoints; the oldest
+     * chains are deleted beyond it. Controlled via /borders setcheckpointbudget <mib>.
+     */
+    public int checkpointBudgetMb = 16;
+
 }
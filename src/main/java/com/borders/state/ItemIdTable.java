@@ -0,0 +1,101 @@
+package com.borders.state;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prebuilt lookup between item id strings ("minecraft:stone") and Items.
+ *
+ * Saves store items by id string. Resolving them one by one means a
+ * ResourceLocation parse plus a registry lookup per id; this table is
+ * built once from the (frozen) item registry so loading a save is a
+ * single hash lookup per item, and saving never re-formats an id.
+ */
+public final class ItemIdTable {
+
+    private static Map<String, Item> byId = null;
+    private static Map<Item, String> idStrings = null;
+
+    private ItemIdTable() {
+    }
+
+    /** Builds both directions on first use; the item registry is frozen by then. */
+    private static void ensureBuilt() {
+        if (byId != null) {
+            return;
+        }
+
+        int size = BuiltInRegistries.ITEM.size();
+        Map<String, Item> forward = new HashMap<>(size * 4 / 3 + 1);
+        Map<Item, String> reverse = new IdentityHashMap<>(size);
+
+        for (Item item : BuiltInRegistries.ITEM) {
+            String id = BuiltInRegistries.ITEM.getKey(item).toString();
+            forward.put(id, item);
+            reverse.put(item, id);
+        }
+
+        byId = forward;
+        idStrings = reverse;
+    }
+
+    /** The item with the given id string, or null if it isn't registered (e.g. a removed mod). */
+    public static Item get(String id) {
+        ensureBuilt();
+        return byId.get(id);
+    }
+
+    /** The id string of a registered item. */
+    public static String idOf(Item item) {
+        ensureBuilt();
+        return idStrings.get(item);
+    }
+
+    /**
+     * Resolves every id in {@code ids} and adds the known items to {@code out}.
+     *
+     * Ids are normally exact registry names and hit the table. Anything else
+     * (e.g. "stone" without a namespace, from hand-edited or old JSON) falls
+     * back to ResourceLocation parsing and a registry lookup, like saves were
+     * resolved before the table existed.
+     *
+     * @return ids that didn't resolve (skipped), in iteration order
+     */
+    public static List<String> resolveAll(Collection<String> ids, List<Item> out) {
+        ensureBuilt();
+
+        List<String> unresolved = new ArrayList<>();
+        for (String id : ids) {
+            Item item = byId.get(id);
+            if (item == null) {
+                item = parseAndLookup(id);
+            }
+            if (item != null) {
+                out.add(item);
+            } else {
+                unresolved.add(id);
+            }
+        }
+        return unresolved;
+    }
+
+    /** Slow path for ids that aren't in canonical "namespace:path" form. */
+    private static Item parseAndLookup(String idString) {
+        ResourceLocation id = ResourceLocation.tryParse(idString);
+        if (id == null) {
+            return null;
+        }
+
+        // 1.21.x: get() returns Optional<Holder.Reference<Item>>
+        return BuiltInRegistries.ITEM.get(id).map(Holder.Reference::value).orElse(null);
+    }
+}
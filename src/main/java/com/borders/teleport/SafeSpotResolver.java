@@ -0,0 +1,212 @@
+package com.borders.teleport;
+
+import com.borders.border.BorderManager;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds a spot where a player can be teleported without dying:
+ *  - solid, non-harmful ground under their feet
+ *  - no collision, fluid or fire at feet and head height
+ *  - inside the level's world border (including circle/polygon shapes)
+ *
+ * Results are cached per chunk: each chunk remembers one verified safe
+ * column. A mass teleport (e.g. /borders reset with 80 players) then costs
+ * one map lookup per player instead of a block search each.
+ *
+ * Cache entries for a chunk are dropped whenever a block in that chunk
+ * changes (see LevelChunkMixin), so a cached spot is never stale, and when
+ * the chunk unloads, so the cache only covers loaded chunks. Border changes
+ * keep the cache: a hit outside the current border is rejected on lookup,
+ * and misses are never cached.
+ */
+public class SafeSpotResolver {
+
+    /** How far (in blocks) around the requested column we search. */
+    private static final int SEARCH_RADIUS = 8;
+
+    /**
+     * Per-dimension cache: packed ChunkPos -> verified feet position.
+     * Concurrent because chunk block updates may arrive from worker threads.
+     */
+    private static final Map<ResourceKey<Level>, Map<Long, BlockPos>> SAFE_COLUMNS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a safe feet position near (x, z), or null if none was found
+     * within SEARCH_RADIUS.
+     *
+     * The returned position may be anywhere in the same chunk as (x, z)
+     * when a cached column is available.
+     */
+    public static BlockPos findSafeSpot(ServerLevel level, int x, int z) {
+        Map<Long, BlockPos> levelCache = SAFE_COLUMNS.computeIfAbsent(
+                level.dimension(), key -> new ConcurrentHashMap<>()
+        );
+
+        long chunkKey = ChunkPos.asLong(x >> 4, z >> 4);
+        BlockPos cached = levelCache.get(chunkKey);
+        if (cached != null && BorderManager.isInsideBorder(level, cached.getX() + 0.5, cached.getZ() + 0.5)) {
+            return cached;
+        }
+
+        BlockPos found = search(level, x, z);
+        if (found != null) {
+            levelCache.put(ChunkPos.asLong(found), found);
+        }
+        return found;
+    }
+
+    /**
+     * Drops the cached safe column for a chunk.
+     * Called on every block change in that chunk and when it unloads.
+     */
+    public static void invalidate(Level level, ChunkPos chunkPos) {
+        if (level.isClientSide()) {
+            return;
+        }
+
+        Map<Long, BlockPos> levelCache = SAFE_COLUMNS.get(level.dimension());
+        if (levelCache != null) {
+            levelCache.remove(chunkPos.toLong());
+        }
+    }
+
+    /**
+     * Feet Y to use in a column when no safe spot was found nearby.
+     *
+     * Open-sky dimensions use the top of the terrain. Dimensions with a
+     * ceiling would put that on the bedrock roof, so there we walk down from
+     * below the ceiling: first to a safe spot, else to the highest two-block
+     * gap, so the player at least ends up under the roof.
+     */
+    public static int fallbackY(ServerLevel level, int x, int z) {
+        if (!level.dimensionType().hasCeiling()) {
+            return level.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, x, z);
+        }
+
+        BlockPos safe = findSafeInColumn(level, x, z);
+        if (safe != null) {
+            return safe.getY();
+        }
+
+        int top = ceilingScanTop(level);
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos(x, top, z);
+        for (int y = top; y > level.getMinY(); y--) {
+            cursor.setY(y);
+            if (isPassable(level, cursor) && isPassable(level, cursor.above())) {
+                return y;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Drops every cached column.
+     * Called on SERVER_STOPPED.
+     */
+    public static void clear() {
+        SAFE_COLUMNS.clear();
+    }
+
+    // ------------------------------------------------------------------------
+    // Search
+    // ------------------------------------------------------------------------
+
+    /**
+     * Searches outward in square rings around (x, z) and returns the first
+     * safe column found, so closer columns always win.
+     */
+    private static BlockPos search(ServerLevel level, int x, int z) {
+        for (int radius = 0; radius <= SEARCH_RADIUS; radius++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    // Only walk the ring, the inside was done already
+                    if (Math.abs(dx) != radius && Math.abs(dz) != radius) {
+                        continue;
+                    }
+
+                    int columnX = x + dx;
+                    int columnZ = z + dz;
+                    if (!BorderManager.isInsideBorder(level, columnX + 0.5, columnZ + 0.5)) {
+                        continue;
+                    }
+
+                    BlockPos feet = findSafeInColumn(level, columnX, columnZ);
+                    if (feet != null) {
+                        return feet;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the feet position in a single column.
+     *
+     * Open-sky dimensions use the heightmap directly (one check).
+     * Dimensions with a ceiling (Nether) would put us on the bedrock roof,
+     * so there we walk down from the logical height to the first safe gap.
+     */
+    private static BlockPos findSafeInColumn(ServerLevel level, int x, int z) {
+        if (!level.dimensionType().hasCeiling()) {
+            int y = level.getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, x, z);
+            BlockPos feet = new BlockPos(x, y, z);
+            return isSafe(level, feet) ? feet : null;
+        }
+
+        int top = ceilingScanTop(level);
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos(x, top, z);
+        for (int y = top; y > level.getMinY(); y--) {
+            cursor.setY(y);
+            if (isSafe(level, cursor)) {
+                return cursor.immutable();
+            }
+        }
+        return null;
+    }
+
+    /** Highest feet Y below the ceiling (head room included). */
+    private static int ceilingScanTop(ServerLevel level) {
+        return level.getMinY() + level.getLogicalHeight() - 2;
+    }
+
+    private static boolean isSafe(ServerLevel level, BlockPos feet) {
+        // Below minY is the void (End islands, empty columns)
+        if (feet.getY() - 1 < level.getMinY()) {
+            return false;
+        }
+
+        BlockPos groundPos = feet.below();
+        BlockState ground = level.getBlockState(groundPos);
+        if (!ground.isFaceSturdy(level, groundPos, Direction.UP)) {
+            return false;
+        }
+        if (ground.is(Blocks.MAGMA_BLOCK) || ground.is(BlockTags.CAMPFIRES)) {
+            return false;
+        }
+
+        return isPassable(level, feet) && isPassable(level, feet.above());
+    }
+
+    private static boolean isPassable(ServerLevel level, BlockPos pos) {
+        BlockState state = level.getBlockState(pos);
+        return state.getCollisionShape(level, pos).isEmpty()
+                && state.getFluidState().isEmpty()
+                && !state.is(BlockTags.FIRE)
+                && !state.is(Blocks.POWDER_SNOW)
+                && !state.is(Blocks.SWEET_BERRY_BUSH)
+                && !state.is(Blocks.WITHER_ROSE);
+    }
+}
@@ -0,0 +1,143 @@
+package com.borders.teleport;
+
+import com.borders.BordersMod;
+import com.borders.border.BorderManager;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Queues teleports until the destination chunk is loaded.
+ *
+ * Calling teleportTo on an unloaded destination makes the server thread load
+ * (and possibly generate) the chunk synchronously. Instead we:
+ *  1. Add a chunk ticket around the destination, which lets the async chunk
+ *     system load it in the background.
+ *  2. Keep the teleport pending and check each tick whether the chunk is ready.
+ *  3. Teleport once it is, or after TIMEOUT_TICKS as a fallback (the final
+ *     teleport then loads whatever is still missing synchronously).
+ *
+ * Mass teleports (/borders reset) call preloadArea first so the whole target
+ * area is already loading before the teleport wave starts.
+ *
+ * Tickets use the vanilla PORTAL ticket type, which expires on its own, so
+ * nothing has to be released afterwards.
+ */
+public class TeleportManager {
+
+    /** Max ticks a teleport waits for its chunk before forcing it. */
+    private static final int TIMEOUT_TICKS = 100;
+
+    /** Ticket radius around a single teleport destination. */
+    private static final int TELEPORT_TICKET_RADIUS = 1;
+
+    /** A queued teleport. The exact safe spot is resolved once the chunk is loaded. */
+    private record PendingTeleport(ServerLevel level, BlockPos target, long deadlineTick) {}
+
+    /** One pending teleport per player, in queue order. */
+    private static final Map<UUID, PendingTeleport> PENDING = new LinkedHashMap<>();
+
+    /** Local tick counter (independent of GameState.globalTick, which reset zeroes). */
+    private static long currentTick = 0L;
+
+    /**
+     * Starts async loading of every chunk within {@code radius} chunks of {@code center}.
+     */
+    public static void preloadArea(ServerLevel level, ChunkPos center, int radius) {
+        level.getChunkSource().addTicketWithRadius(TicketType.PORTAL, center, radius);
+    }
+
+    /**
+     * Queues a teleport of {@code player} to a safe spot near {@code target}
+     * in {@code level}. Replaces any teleport already pending for that player.
+     */
+    public static void queueTeleport(ServerPlayer player, ServerLevel level, BlockPos target) {
+        preloadArea(level, new ChunkPos(target), TELEPORT_TICKET_RADIUS);
+        PENDING.put(player.getUUID(), new PendingTeleport(level, target, currentTick + TIMEOUT_TICKS));
+    }
+
+    /**
+     * Drops every queued teleport. Called when a profile switch or import
+     * replaces the live state (targets were resolved for the old geometry;
+     * containment re-checks everyone right after) and from SERVER_STOPPED.
+     */
+    public static void clear() {
+        PENDING.clear();
+    }
+
+    /** Whether the player is waiting for a queued teleport. */
+    public static boolean isPending(UUID playerId) {
+        return PENDING.containsKey(playerId);
+    }
+
+    /**
+     * Called once per server tick by BordersMod.
+     * Executes every pending teleport whose chunk is loaded or whose deadline passed.
+     */
+    public static void tick(MinecraftServer server) {
+        currentTick++;
+
+        if (PENDING.isEmpty()) {
+            return;
+        }
+
+        Iterator<Map.Entry<UUID, PendingTeleport>> it = PENDING.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, PendingTeleport> entry = it.next();
+            PendingTeleport pending = entry.getValue();
+
+            ServerPlayer player = server.getPlayerList().getPlayer(entry.getKey());
+            if (player == null) {
+                // Player left before we could move them
+                it.remove();
+                continue;
+            }
+
+            BlockPos target = pending.target();
+            boolean loaded = pending.level().getChunkSource()
+                    .hasChunk(target.getX() >> 4, target.getZ() >> 4);
+
+            if (!loaded && currentTick < pending.deadlineTick()) {
+                continue;
+            }
+
+            if (!loaded) {
+                BordersMod.LOGGER.warn(
+                        "[Borders] Chunk at {} not loaded after {} ticks, teleporting {} anyway.",
+                        target, TIMEOUT_TICKS, player.getName().getString()
+                );
+            }
+
+            it.remove();
+            execute(player, pending.level(), target);
+        }
+    }
+
+    private static void execute(ServerPlayer player, ServerLevel level, BlockPos target) {
+        // The safe-spot search checks the destination's border; make sure it's current
+        BorderManager.materialize(level);
+
+        BlockPos safe = SafeSpotResolver.findSafeSpot(level, target.getX(), target.getZ());
+        BlockPos destination = safe != null ? safe : target;
+
+        player.teleportTo(
+                level,
+                destination.getX() + 0.5,
+                destination.getY(),
+                destination.getZ() + 0.5,
+                Collections.emptySet(),  // no relative flags
+                player.getYRot(),
+                player.getXRot(),
+                false
+        );
+    }
+}
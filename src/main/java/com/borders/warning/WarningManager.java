@@ -0,0 +1,205 @@
+package com.borders.warning;
+
+import com.borders.BordersMod;
+import com.borders.border.BorderManager;
+import com.borders.containment.ContainmentManager;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shows an action-bar warning while a player is close to the border edge.
+ *
+ * Players are sorted into distance buckets, each with its own check interval:
+ *
+ *  - Bucket 0 holds everyone within GameState.borderWarningDistance of the
+ *    edge. They are checked (and warned) every tick.
+ *  - Higher buckets hold players further away. A bucket with interval N
+ *    only checks 1/N of its players per tick (round-robin), so every player
+ *    in it is seen roughly once every N ticks.
+ *
+ * A player goes into the slowest bucket whose interval is shorter than the
+ * time they need to reach the warning distance at ContainmentManager's
+ * pessimistic speed. The per-tick cost is therefore the near-edge players
+ * plus a fixed slice of everyone else, instead of every player every tick.
+ */
+public class WarningManager {
+
+    /** Check interval (ticks) per bucket; index 0 is the warning bucket. */
+    private static final int[] BUCKET_INTERVALS = { 1, 10, 40, 100 };
+
+    /** Ticks between repeats of an unchanged warning (action bar fades after ~3s). */
+    private static final int REFRESH_TICKS = 20;
+
+    /** A queued check; stale entries are skipped lazily when polled. */
+    private record Entry(UUID playerId, int bucket) {}
+
+    @SuppressWarnings("unchecked")
+    private static final ArrayDeque<Entry>[] BUCKETS = new ArrayDeque[BUCKET_INTERVALS.length];
+    static {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            BUCKETS[i] = new ArrayDeque<>();
+        }
+    }
+
+    /** The single live entry per player (anything else in BUCKETS is stale). */
+    private static final Map<UUID, Entry> CURRENT = new HashMap<>();
+
+    /** Last warning shown per player: whole blocks to the edge. */
+    private static final Map<UUID, Integer> LAST_SHOWN_DISTANCE = new HashMap<>();
+
+    /** Tick at which the last warning was sent per player. */
+    private static final Map<UUID, Long> LAST_SHOWN_TICK = new HashMap<>();
+
+    /** Local tick counter (independent of GameState.globalTick, which reset zeroes). */
+    private static long currentTick = 0L;
+
+    /**
+     * Called once per server tick by BordersMod.
+     * Checks all near-edge players and one slice of every other bucket.
+     */
+    public static void tick(MinecraftServer server) {
+        currentTick++;
+
+        for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+            ArrayDeque<Entry> queue = BUCKETS[bucket];
+            if (queue.isEmpty()) {
+                continue;
+            }
+
+            // Fixed slice: entries re-queued during this pass land behind it
+            int interval = BUCKET_INTERVALS[bucket];
+            int slice = (queue.size() + interval - 1) / interval;
+
+            for (int i = 0; i < slice && !queue.isEmpty(); i++) {
+                Entry entry = queue.poll();
+                if (CURRENT.get(entry.playerId()) != entry) {
+                    continue;
+                }
+                CURRENT.remove(entry.playerId());
+
+                ServerPlayer player = server.getPlayerList().getPlayer(entry.playerId());
+                if (player == null) {
+                    forget(entry.playerId());
+                    continue;
+                }
+
+                checkPlayer(player);
+            }
+        }
+    }
+
+    /**
+     * Starts tracking a player in the warning bucket (checked next tick).
+     * Used on join and whenever a player changes dimension or respawns.
+     */
+    public static void track(ServerPlayer player) {
+        enqueue(player.getUUID(), 0);
+    }
+
+    /** Stops tracking a player (on disconnect). */
+    public static void untrack(ServerPlayer player) {
+        forget(player.getUUID());
+    }
+
+    /**
+     * Moves every tracked player back into the warning bucket.
+     * Called when the border shrinks, moves or changes shape.
+     */
+    public static void invalidateAll(MinecraftServer server) {
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            track(player);
+        }
+    }
+
+    private static void checkPlayer(ServerPlayer player) {
+        UUID id = player.getUUID();
+        int warningDistance = BordersMod.STATE.borderWarningDistance;
+
+        if (!BordersMod.STATE.BORDER_INITIALIZED || warningDistance <= 0) {
+            // Nothing to warn about; look again in the slowest bucket
+            enqueue(id, BUCKETS.length - 1);
+            return;
+        }
+
+        ServerLevel level = (ServerLevel) player.level();
+        double distance = BorderManager.distanceToEdge(level, player.getX(), player.getZ());
+
+        // The cheap value is only a lower bound for circles and polygons;
+        // anything that may end up on screen uses the true distance
+        if (distance <= warningDistance) {
+            distance = BorderManager.exactDistanceToEdge(level, player.getX(), player.getZ());
+        }
+
+        if (distance <= warningDistance) {
+            // Outside is ContainmentManager's job; only warn while still inside
+            if (distance >= 0) {
+                showWarning(player, distance, warningDistance);
+            }
+            enqueue(id, 0);
+            return;
+        }
+
+        LAST_SHOWN_DISTANCE.remove(id);
+        LAST_SHOWN_TICK.remove(id);
+
+        double ticksToWarning = (distance - warningDistance) / ContainmentManager.MAX_BLOCKS_PER_TICK;
+        int bucket = 0;
+        for (int i = BUCKET_INTERVALS.length - 1; i > 0; i--) {
+            if (BUCKET_INTERVALS[i] <= ticksToWarning) {
+                bucket = i;
+                break;
+            }
+        }
+        enqueue(id, bucket);
+    }
+
+    private static void showWarning(ServerPlayer player, double distance, int warningDistance) {
+        UUID id = player.getUUID();
+        int blocks = (int) Math.ceil(distance);
+
+        // Only resend when the number changes or the last message is about to fade
+        Integer lastDistance = LAST_SHOWN_DISTANCE.get(id);
+        Long lastTick = LAST_SHOWN_TICK.get(id);
+        if (lastDistance != null && lastDistance == blocks
+                && lastTick != null && currentTick - lastTick < REFRESH_TICKS) {
+            return;
+        }
+
+        LAST_SHOWN_DISTANCE.put(id, blocks);
+        LAST_SHOWN_TICK.put(id, currentTick);
+
+        // Red for the closer half of the warning zone, gold for the rest
+        int color = blocks * 2 <= warningDistance ? 0xFF5555 : 0xFFAA00;
+
+        player.sendSystemMessage(
+                Component.literal("Border edge: " + blocks + (blocks == 1 ? " block" : " blocks") + " away")
+                        .withStyle(style -> style.withColor(color)),
+                true
+        );
+    }
+
+    private static void enqueue(UUID playerId, int bucket) {
+        Entry existing = CURRENT.get(playerId);
+        if (existing != null && existing.bucket() == bucket) {
+            // Already queued there; keep its place
+            return;
+        }
+
+        Entry entry = new Entry(playerId, bucket);
+        CURRENT.put(playerId, entry);
+        BUCKETS[bucket].add(entry);
+    }
+
+    private static void forget(UUID playerId) {
+        CURRENT.remove(playerId);
+        LAST_SHOWN_DISTANCE.remove(playerId);
+        LAST_SHOWN_TICK.remove(playerId);
+    }
+}